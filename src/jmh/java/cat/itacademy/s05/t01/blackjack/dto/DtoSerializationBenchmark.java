@@ -0,0 +1,55 @@
+package cat.itacademy.s05.t01.blackjack.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoSerializationBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private PlayResultDTO playResult;
+    private GameDetailsResponse gameDetails;
+
+    @Setup
+    public void setUp() {
+        playResult = PlayResultDTO.builder()
+                .gameId("6740a1f2c3b4d5e6f7a8b9c0")
+                .status("PLAYER_WIN")
+                .playerHand(List.of("10H", "9D"))
+                .dealerHand(List.of("5C", "7D", "KS"))
+                .playerValue(19)
+                .dealerValue(22)
+                .message("Player wins!")
+                .build();
+
+        gameDetails = GameDetailsResponse.builder()
+                .gameId("6740a1f2c3b4d5e6f7a8b9c0")
+                .playerId(42L)
+                .playerHand(List.of("AH", "7D"))
+                .dealerHand(List.of("9C"))
+                .status("IN_PROGRESS")
+                .playerHandValue(18)
+                .dealerHandValue(9)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serializePlayResult() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(playResult);
+    }
+
+    @Benchmark
+    public byte[] serializeGameDetails() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(gameDetails);
+    }
+}
@@ -0,0 +1,58 @@
+package cat.itacademy.s05.t01.blackjack.service;
+
+import cat.itacademy.s05.t01.blackjack.dto.PlayResultDTO;
+import cat.itacademy.s05.t01.blackjack.model.mongo.Game;
+import cat.itacademy.s05.t01.blackjack.model.mongo.GameStatus;
+import cat.itacademy.s05.t01.blackjack.model.mongo.HandStatus;
+import cat.itacademy.s05.t01.blackjack.model.mongo.PlayerHand;
+import cat.itacademy.s05.t01.blackjack.util.BlackjackRules;
+import cat.itacademy.s05.t01.blackjack.util.DeckFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameMappingBenchmark {
+
+    @Param({"2", "4", "6"})
+    private int handSize;
+
+    @Param({"IN_PROGRESS", "PLAYER_WIN"})
+    private GameStatus status;
+
+    private GameServiceImpl gameService;
+    private Game game;
+
+    @Setup
+    public void setUp() {
+        // Repositories and the shoe pool are never touched by the mapping
+        gameService = new GameServiceImpl(null, null, null, null, null, null, null, null);
+
+        byte[] deck = DeckFactory.createShuffledDeck();
+        game = Game.builder()
+                .id("benchmark-game")
+                .playerId(1L)
+                .hands(List.of(PlayerHand.builder()
+                        .cards(Arrays.copyOfRange(deck, 0, handSize))
+                        .total(BlackjackRules.evaluate(Arrays.copyOfRange(deck, 0, handSize)).total())
+                        .bet(1)
+                        .status(HandStatus.STOOD)
+                        .build()))
+                .dealerHand(Arrays.copyOfRange(deck, handSize, handSize + 3))
+                .deck(Arrays.copyOfRange(deck, handSize + 3, deck.length))
+                .status(status)
+                .build();
+    }
+
+    @Benchmark
+    public PlayResultDTO toPlayResult() {
+        return gameService.toPlayResult(game);
+    }
+}
@@ -0,0 +1,44 @@
+package cat.itacademy.s05.t01.blackjack.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlackjackRulesBenchmark {
+
+    @Param({"2", "3", "5", "8"})
+    private int handSize;
+
+    private byte[] hand;
+    private List<String> labels;
+
+    @Setup
+    public void setUp() {
+        byte[] deck = DeckFactory.createShuffledDeck();
+        hand = new byte[handSize];
+        System.arraycopy(deck, 0, hand, 0, handSize);
+        labels = Cards.labels(hand);
+    }
+
+    @Benchmark
+    public int calculateHandValueBytes() {
+        return BlackjackRules.calculateHandValue(hand);
+    }
+
+    @Benchmark
+    public int calculateHandValueLabels() {
+        return BlackjackRules.calculateHandValue(labels);
+    }
+
+    @Benchmark
+    public int evaluate() {
+        return BlackjackRules.evaluate(hand).total();
+    }
+}
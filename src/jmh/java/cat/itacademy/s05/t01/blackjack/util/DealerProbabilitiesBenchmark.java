@@ -0,0 +1,57 @@
+package cat.itacademy.s05.t01.blackjack.util;
+
+import cat.itacademy.s05.t01.blackjack.model.mongo.Move;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DealerProbabilitiesBenchmark {
+
+    private static final int TWO = 1;
+    private static final int TEN = 9;
+
+    @Param({"1", "6", "8"})
+    private int decks;
+
+    private int[] remaining;
+    private DealerProbabilities uncached;
+    private DealerProbabilities cached;
+
+    @Setup
+    public void setUp() {
+        // Player holds 10 + 2 against a dealer 2
+        remaining = StrategySolver.shoeComposition(decks);
+        remaining[TEN]--;
+        remaining[TWO] -= 2;
+
+        uncached = new DealerProbabilities(0);
+        cached = new DealerProbabilities(100_000);
+        StrategySolver.bestMove(remaining, 12, false, TWO, cached);
+    }
+
+    @Benchmark
+    public double[] dealerOutcomesUncached() {
+        return uncached.newQuery().outcomes(remaining, TWO);
+    }
+
+    @Benchmark
+    public double[] dealerOutcomesCached() {
+        return cached.newQuery().outcomes(remaining, TWO);
+    }
+
+    @Benchmark
+    public Move compositionAdviceUncached() {
+        return StrategySolver.bestMove(remaining, 12, false, TWO, uncached);
+    }
+
+    @Benchmark
+    public Move compositionAdviceCached() {
+        return StrategySolver.bestMove(remaining, 12, false, TWO, cached);
+    }
+}
@@ -0,0 +1,18 @@
+package cat.itacademy.s05.t01.blackjack.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeckFactoryBenchmark {
+
+    @Benchmark
+    public byte[] createShuffledDeck() {
+        return DeckFactory.createShuffledDeck();
+    }
+}
@@ -0,0 +1,25 @@
+package cat.itacademy.s05.t01.blackjack.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulationEngineBenchmark {
+
+    @Param({"100000", "1000000"})
+    private long hands;
+
+    @Param({"MIMIC_DEALER", "NEVER_BUST"})
+    private SimulationStrategy strategy;
+
+    @Benchmark
+    public SimulationResult simulate() {
+        return SimulationEngine.simulate(hands, 6, 0.75, strategy, 42L);
+    }
+}
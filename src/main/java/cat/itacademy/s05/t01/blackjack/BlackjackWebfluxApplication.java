@@ -2,8 +2,10 @@ package cat.itacademy.s05.t01.blackjack;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class BlackjackWebfluxApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,26 @@
+package cat.itacademy.s05.t01.blackjack.config;
+
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Move advisor settings under {@code blackjack.advisor}.
+ *
+ * @param mode  {@code TABLE} looks the move up in the basic strategy table solved
+ *              at startup; {@code COMPOSITION} solves each hand for the exact
+ *              cards left once the player's cards and the up card are removed
+ * @param dealerCacheSize  solved dealer distributions kept between hints
+ */
+@Validated
+@ConfigurationProperties(prefix = "blackjack.advisor")
+public record AdvisorProperties(
+        @DefaultValue("TABLE") Mode mode,
+        @DefaultValue("100000") @Min(1) int dealerCacheSize
+) {
+
+    public enum Mode {
+        TABLE, COMPOSITION
+    }
+}
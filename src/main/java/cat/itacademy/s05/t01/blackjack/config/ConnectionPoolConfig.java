@@ -0,0 +1,67 @@
+package cat.itacademy.s05.t01.blackjack.config;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ConnectionPoolConfig {
+
+    static final String MONGO_CHECKOUT = "mongodb.driver.pool.checkout";
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoPool(PoolProperties properties, MeterRegistry registry) {
+        PoolProperties.Mongo mongo = properties.mongo();
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(mongo.maxSize())
+                .minSize(mongo.minSize())
+                .maxWaitTime(mongo.maxWaitTime().toMillis(), TimeUnit.MILLISECONDS)
+                .maxConnecting(mongo.maxConnecting())
+                .maxConnectionIdleTime(mongo.maxIdleTime().toMillis(), TimeUnit.MILLISECONDS)
+                .addConnectionPoolListener(new CheckoutTimer(registry)));
+    }
+
+    // Static so it is registered before the connection pool it wraps
+    @Bean
+    public static BeanPostProcessor timedConnectionPool(ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof ConnectionPool pool
+                        ? new TimedConnectionFactory(pool, registry.getObject())
+                        : bean;
+            }
+        };
+    }
+
+    // Spring Boot publishes the pool size and checked out connections, not how long checking out took
+    static class CheckoutTimer implements ConnectionPoolListener {
+
+        private final MeterRegistry registry;
+
+        CheckoutTimer(MeterRegistry registry) {
+            this.registry = registry;
+        }
+
+        @Override
+        public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+            registry.timer(MONGO_CHECKOUT, "outcome", "success")
+                    .record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+            registry.timer(MONGO_CHECKOUT, "outcome", event.getReason().name().toLowerCase())
+                    .record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        }
+    }
+}
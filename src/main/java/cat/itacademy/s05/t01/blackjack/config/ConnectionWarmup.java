@@ -0,0 +1,81 @@
+package cat.itacademy.s05.t01.blackjack.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ValidationDepth;
+import io.r2dbc.spi.Wrapped;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Opens the database connections before the application reports ready, so the first
+ * requests after a deploy do not pay for the TCP and TLS handshakes and authentication.
+ * Runs as an {@link ApplicationRunner}, which Spring Boot waits for before switching
+ * readiness to accepting traffic. A database that is not reachable in time is only logged.
+ */
+@Slf4j
+@Component
+public class ConnectionWarmup implements ApplicationRunner {
+
+    private static final Document PING = new Document("ping", 1);
+
+    private final ConnectionFactory connectionFactory;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final PoolProperties properties;
+
+    public ConnectionWarmup(ConnectionFactory connectionFactory,
+                            ReactiveMongoTemplate mongoTemplate,
+                            PoolProperties properties) {
+        this.connectionFactory = connectionFactory;
+        this.mongoTemplate = mongoTemplate;
+        this.properties = properties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.warmup()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        Mono.zip(warmUpMysql(), warmUpMongo())
+                .timeout(properties.warmupTimeout())
+                .doOnNext(opened -> log.info("Opened {} MySQL and {} MongoDB connections in {} ms",
+                        opened.getT1(), opened.getT2(), (System.nanoTime() - start) / 1_000_000))
+                .doOnError(ex -> log.warn("Connection warm-up did not finish, going on without it", ex))
+                .onErrorComplete()
+                .block();
+    }
+
+    // Fills the pool up to spring.r2dbc.pool.initial-size
+    Mono<Integer> warmUpMysql() {
+        ConnectionFactory factory = connectionFactory;
+        while (!(factory instanceof ConnectionPool) && factory instanceof Wrapped<?> wrapped
+                && wrapped.unwrap() instanceof ConnectionFactory inner) {
+            factory = inner;
+        }
+
+        if (factory instanceof ConnectionPool pool) {
+            return pool.warmup();
+        }
+        return Mono.usingWhen(connectionFactory.create(),
+                connection -> Mono.from(connection.validate(ValidationDepth.REMOTE)).thenReturn(1),
+                Connection::close);
+    }
+
+    // Concurrent pings each check out a connection of their own
+    Mono<Integer> warmUpMongo() {
+        int connections = Math.max(1, properties.mongo().minSize());
+        return Flux.range(0, connections)
+                .flatMap(i -> mongoTemplate.executeCommand(PING), connections)
+                .count()
+                .map(Long::intValue);
+    }
+}
@@ -0,0 +1,26 @@
+package cat.itacademy.s05.t01.blackjack.config;
+
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * In-progress game cache settings under {@code blackjack.game-cache}.
+ *
+ * @param enabled        keep games being played in memory and write their moves behind;
+ *                       only safe when every game is played through one instance
+ * @param maxSize        games kept in memory; past it the least recently used stored games are dropped
+ * @param idleTimeout    how long a game may go without moves before it is stored and dropped
+ * @param flushInterval  how often moves kept in memory are written to MongoDB
+ */
+@Validated
+@ConfigurationProperties(prefix = "blackjack.game-cache")
+public record GameCacheProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("10000") @Min(1) int maxSize,
+        @DefaultValue("10m") Duration idleTimeout,
+        @DefaultValue("1s") Duration flushInterval
+) {}
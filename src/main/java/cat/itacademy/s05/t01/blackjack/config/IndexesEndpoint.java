@@ -0,0 +1,28 @@
+package cat.itacademy.s05.t01.blackjack.config;
+
+import cat.itacademy.s05.t01.blackjack.repository.IndexManager;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * {@code GET /actuator/indexes}: every declared index and whether the database has it.
+ */
+@Component
+@Endpoint(id = "indexes")
+public class IndexesEndpoint {
+
+    private final IndexManager indexManager;
+
+    public IndexesEndpoint(IndexManager indexManager) {
+        this.indexManager = indexManager;
+    }
+
+    @ReadOperation
+    public Mono<List<IndexManager.IndexStatus>> indexes() {
+        return indexManager.check();
+    }
+}
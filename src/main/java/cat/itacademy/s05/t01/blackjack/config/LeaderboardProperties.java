@@ -0,0 +1,22 @@
+package cat.itacademy.s05.t01.blackjack.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * In-memory leaderboard settings under {@code blackjack.leaderboard}.
+ *
+ * @param enabled            serve the ranking from memory instead of MySQL
+ * @param maxStaleness       how old the last sync may be before reads go back to MySQL
+ * @param reconcileInterval  how often players changed since the last sync are read back from MySQL
+ */
+@Validated
+@ConfigurationProperties(prefix = "blackjack.leaderboard")
+public record LeaderboardProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("2m") Duration maxStaleness,
+        @DefaultValue("30s") Duration reconcileInterval
+) {}
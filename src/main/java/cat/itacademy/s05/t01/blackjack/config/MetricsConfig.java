@@ -0,0 +1,47 @@
+package cat.itacademy.s05.t01.blackjack.config;
+
+import cat.itacademy.s05.t01.blackjack.service.GameStateCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class MetricsConfig {
+
+    // Static so it is registered before the services and repositories it wraps
+    @Bean
+    public static BeanPostProcessor reactiveCallObservations(ObjectProvider<ObservationRegistry> observations,
+                                                             ObjectProvider<MeterRegistry> meters) {
+        return new ReactiveCallObservations(observations, meters);
+    }
+
+    @Bean
+    public MeterBinder gameCacheMetrics(GameStateCache gameCache) {
+        return registry -> {
+            FunctionCounter.builder("blackjack.game.cache.requests", gameCache, cache -> cache.stats().hits())
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("blackjack.game.cache.requests", gameCache, cache -> cache.stats().misses())
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("blackjack.game.cache.conflicts", gameCache, cache -> cache.stats().conflicts())
+                    .register(registry);
+            FunctionTimer.builder("blackjack.game.cache.flushes", gameCache,
+                            cache -> cache.stats().flushes(),
+                            cache -> cache.stats().flushNanos(),
+                            TimeUnit.NANOSECONDS)
+                    .register(registry);
+            Gauge.builder("blackjack.game.cache.size", gameCache, cache -> cache.stats().size())
+                    .register(registry);
+        };
+    }
+}
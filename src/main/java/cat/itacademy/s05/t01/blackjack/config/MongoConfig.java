@@ -0,0 +1,33 @@
+package cat.itacademy.s05.t01.blackjack.config;
+
+import cat.itacademy.s05.t01.blackjack.util.Cards;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.util.List;
+
+@Configuration
+public class MongoConfig {
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(List.of(new LegacyCardListReadingConverter()));
+    }
+
+    /**
+     * Games written before the compact encoding stored cards as string arrays
+     * ("10H", "AS"...). They are read into the byte form and rewritten as binary
+     * on the next save.
+     */
+    @ReadingConverter
+    static class LegacyCardListReadingConverter implements Converter<List<String>, byte[]> {
+
+        @Override
+        public byte[] convert(List<String> source) {
+            return Cards.encodeAll(source);
+        }
+    }
+}
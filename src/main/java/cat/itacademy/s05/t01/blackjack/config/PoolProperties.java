@@ -0,0 +1,42 @@
+package cat.itacademy.s05.t01.blackjack.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Connection pool settings under {@code blackjack.pool}. The MySQL pool is set up by
+ * Spring Boot from {@code spring.r2dbc.pool}; the MongoDB driver pool has no such
+ * properties, so it is configured here.
+ *
+ * @param warmup         open connections to both databases before the application reports ready
+ * @param warmupTimeout  how long startup waits for them before going on without
+ * @param mongo          MongoDB driver pool
+ */
+@Validated
+@ConfigurationProperties(prefix = "blackjack.pool")
+public record PoolProperties(
+        @DefaultValue("true") boolean warmup,
+        @DefaultValue("10s") Duration warmupTimeout,
+        @DefaultValue @Valid Mongo mongo
+) {
+
+    /**
+     * @param maxSize        connections per server
+     * @param minSize        connections kept open per server, also the number opened by the warm-up
+     * @param maxWaitTime    how long a query waits for a connection before failing
+     * @param maxConnecting  connections being opened at the same time; queries past the pool size wait for these
+     * @param maxIdleTime    idle connections are closed after this, down to {@code minSize}
+     */
+    public record Mongo(
+            @DefaultValue("100") @Min(1) int maxSize,
+            @DefaultValue("10") @Min(0) int minSize,
+            @DefaultValue("2s") Duration maxWaitTime,
+            @DefaultValue("2") @Min(1) int maxConnecting,
+            @DefaultValue("10m") Duration maxIdleTime
+    ) {}
+}
@@ -0,0 +1,172 @@
+package cat.itacademy.s05.t01.blackjack.config;
+
+import cat.itacademy.s05.t01.blackjack.service.GameService;
+import cat.itacademy.s05.t01.blackjack.service.PlayerService;
+import cat.itacademy.s05.t01.blackjack.service.TableService;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.data.repository.Repository;
+import org.springframework.util.ClassUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Observes every call to the game, player and table services and to the Spring Data
+ * repositories. The reactive result is observed from subscription until it completes,
+ * fails or is cancelled, which is when the work actually runs.
+ * <p>
+ * Each observation is timed and, with tracing on, is a span: it takes the observation
+ * in the subscriber context as its parent (the HTTP request, or the service call that
+ * made the repository call) and puts itself there for the calls it makes.
+ */
+class ReactiveCallObservations implements BeanPostProcessor {
+
+    static final String SERVICE_CALLS = "blackjack.service.calls";
+    static final String SERVICE_IN_FLIGHT = "blackjack.service.in.flight";
+    static final String REPOSITORY_CALLS = "blackjack.repository.calls";
+
+    private static final List<Class<?>> SERVICES = List.of(GameService.class, PlayerService.class, TableService.class);
+
+    private final ObjectProvider<ObservationRegistry> observations;
+    private final ObjectProvider<MeterRegistry> meters;
+    private final Map<KeyValues, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    ReactiveCallObservations(ObjectProvider<ObservationRegistry> observations, ObjectProvider<MeterRegistry> meters) {
+        this.observations = observations;
+        this.meters = meters;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        for (Class<?> service : SERVICES) {
+            if (service.isInstance(bean)) {
+                return observed(bean, SERVICE_CALLS, service.getSimpleName(),
+                        KeyValues.of("service", service.getSimpleName()), true);
+            }
+        }
+
+        if (bean instanceof Repository<?, ?>) {
+            String repository = repositoryInterface(bean).getSimpleName();
+            String store = bean instanceof ReactiveMongoRepository<?, ?> ? "mongo" : "mysql";
+            return observed(bean, REPOSITORY_CALLS, repository,
+                    KeyValues.of("store", store, "repository", repository), false);
+        }
+        return bean;
+    }
+
+    private Object observed(Object bean, String name, String type, KeyValues keyValues, boolean trackInFlight) {
+        ProxyFactory proxy = new ProxyFactory();
+        proxy.setTarget(bean);
+        proxy.setInterfaces(userInterfaces(bean));
+        proxy.addAdvice((MethodInterceptor) invocation -> {
+            Object result = invocation.proceed();
+            if (!(result instanceof Mono<?>) && !(result instanceof Flux<?>)) {
+                return result;
+            }
+
+            String method = invocation.getMethod().getName();
+            Call call = new Call(name, type + "." + method, keyValues.and("method", method),
+                    trackInFlight ? inFlight(keyValues.and("method", method)) : null);
+            return result instanceof Mono<?> mono
+                    ? Mono.deferContextual(context -> {
+                        Observation observation = start(call, context);
+                        return mono.doOnError(observation::error)
+                                .doFinally(signal -> stop(call, observation, signal))
+                                .contextWrite(parent(observation));
+                    })
+                    : Flux.deferContextual(context -> {
+                        Observation observation = start(call, context);
+                        return ((Flux<?>) result).doOnError(observation::error)
+                                .doFinally(signal -> stop(call, observation, signal))
+                                .contextWrite(parent(observation));
+                    });
+        });
+        return proxy.getProxy(bean.getClass().getClassLoader());
+    }
+
+    private record Call(String name, String contextualName, KeyValues keyValues, AtomicInteger running) {}
+
+    private Observation start(Call call, ContextView context) {
+        if (call.running() != null) {
+            call.running().incrementAndGet();
+        }
+
+        return Observation.createNotStarted(call.name(), observations.getIfAvailable(() -> ObservationRegistry.NOOP))
+                .contextualName(call.contextualName())
+                .lowCardinalityKeyValues(call.keyValues())
+                .parentObservation(context.getOrDefault(ObservationThreadLocalAccessor.KEY, null))
+                .start();
+    }
+
+    private static void stop(Call call, Observation observation, SignalType signal) {
+        if (call.running() != null) {
+            call.running().decrementAndGet();
+        }
+        observation.lowCardinalityKeyValue("outcome", outcome(signal)).stop();
+    }
+
+    // What the call makes, repository calls included, is observed as its children
+    private static Function<Context, Context> parent(Observation observation) {
+        return context -> context.put(ObservationThreadLocalAccessor.KEY, observation);
+    }
+
+    private AtomicInteger inFlight(KeyValues keyValues) {
+        return inFlight.computeIfAbsent(keyValues, ignored -> {
+            AtomicInteger running = new AtomicInteger();
+            MeterRegistry registry = meters.getIfAvailable();
+            if (registry != null) {
+                Tags tags = Tags.empty();
+                for (var keyValue : keyValues) {
+                    tags = tags.and(keyValue.getKey(), keyValue.getValue());
+                }
+                Gauge.builder(SERVICE_IN_FLIGHT, running, AtomicInteger::get).tags(tags).register(registry);
+            }
+            return running;
+        });
+    }
+
+    private static String outcome(SignalType signal) {
+        return switch (signal) {
+            case ON_COMPLETE -> "success";
+            case ON_ERROR -> "error";
+            default -> "cancelled";
+        };
+    }
+
+    private static Class<?> repositoryInterface(Object bean) {
+        for (Class<?> type : userInterfaces(bean)) {
+            if (Repository.class.isAssignableFrom(type) && !type.getName().startsWith("org.springframework")) {
+                return type;
+            }
+        }
+        return AopUtils.getTargetClass(bean);
+    }
+
+    // Repositories already are proxies; only their own interfaces are kept
+    private static Class<?>[] userInterfaces(Object bean) {
+        return AopUtils.isAopProxy(bean)
+                ? AopProxyUtils.proxiedUserInterfaces(bean)
+                : ClassUtils.getAllInterfaces(bean);
+    }
+}
@@ -0,0 +1,28 @@
+package cat.itacademy.s05.t01.blackjack.config;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Shoe settings under {@code blackjack.shoe}.
+ *
+ * @param decks         decks shuffled together into one shoe
+ * @param penetration   fraction of the shoe dealt before the cut card
+ * @param cardsPerGame  cards reserved for each game seated from a shoe
+ * @param poolSize      shuffled shoes kept ready in the background
+ * @param cacheSize     recently used shoes kept in memory for playing moves
+ */
+@Validated
+@ConfigurationProperties(prefix = "blackjack.shoe")
+public record ShoeProperties(
+        @DefaultValue("6") @Min(1) @Max(8) int decks,
+        @DefaultValue("0.75") @DecimalMin("0.1") @DecimalMax("0.9") double penetration,
+        @DefaultValue("16") @Min(4) int cardsPerGame,
+        @DefaultValue("4") @Min(1) int poolSize,
+        @DefaultValue("64") @Min(1) int cacheSize
+) {}
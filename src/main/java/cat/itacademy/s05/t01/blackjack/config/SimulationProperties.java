@@ -0,0 +1,19 @@
+package cat.itacademy.s05.t01.blackjack.config;
+
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Hand simulation settings under {@code blackjack.simulation}.
+ *
+ * @param threads        threads of the dedicated scheduler shared by all simulations
+ * @param maxConcurrent  simulations running at once; more are rejected with 429
+ */
+@Validated
+@ConfigurationProperties(prefix = "blackjack.simulation")
+public record SimulationProperties(
+        @DefaultValue("2") @Min(1) int threads,
+        @DefaultValue("2") @Min(1) int maxConcurrent
+) {}
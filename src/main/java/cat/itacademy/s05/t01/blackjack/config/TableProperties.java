@@ -0,0 +1,24 @@
+package cat.itacademy.s05.t01.blackjack.config;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Multi-seat table settings under {@code blackjack.table}.
+ *
+ * @param seats         players seated at one table
+ * @param actionWindow  how long seat actions on a table are collected before they are applied together
+ * @param actionTimeout how long a round waits without any seat action before the seats still playing stand
+ */
+@Validated
+@ConfigurationProperties(prefix = "blackjack.table")
+public record TableProperties(
+        @DefaultValue("7") @Min(1) @Max(7) int seats,
+        @DefaultValue("20ms") Duration actionWindow,
+        @DefaultValue("30s") Duration actionTimeout
+) {}
@@ -0,0 +1,55 @@
+package cat.itacademy.s05.t01.blackjack.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Closeable;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import reactor.core.publisher.Mono;
+
+/**
+ * Times how long callers wait for a connection from the R2DBC pool. Spring Boot
+ * still finds the pool behind it for the {@code r2dbc.pool.*} gauges.
+ */
+class TimedConnectionFactory implements ConnectionFactory, Closeable, Wrapped<ConnectionFactory> {
+
+    static final String ACQUIRE = "r2dbc.pool.acquire";
+
+    private final ConnectionFactory pool;
+    private final MeterRegistry registry;
+
+    TimedConnectionFactory(ConnectionFactory pool, MeterRegistry registry) {
+        this.pool = pool;
+        this.registry = registry;
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            return Mono.from(pool.create())
+                    .doOnSuccess(connection -> sample.stop(registry.timer(ACQUIRE, "outcome", "success")))
+                    .doOnError(ex -> sample.stop(registry.timer(ACQUIRE, "outcome", "error")));
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return pool.getMetadata();
+    }
+
+    // Still the pool's shutdown hook, as Spring now sees this bean instead
+    @Override
+    public Mono<Void> close() {
+        return pool instanceof Closeable closeable
+                ? Mono.from(closeable.close())
+                : Mono.empty();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return pool;
+    }
+}
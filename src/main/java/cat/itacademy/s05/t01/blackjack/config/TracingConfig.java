@@ -0,0 +1,35 @@
+package cat.itacademy.s05.t01.blackjack.config;
+
+import io.micrometer.observation.ObservationRegistry;
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.observability.ContextProviderFactory;
+import org.springframework.data.mongodb.observability.MongoObservationCommandListener;
+
+/**
+ * Spans below the repository calls: every MongoDB command, and every R2DBC query
+ * through r2dbc-proxy, which Spring Boot sets up on its own. Spans go to the OTLP
+ * endpoint in {@code management.otlp.tracing}, and also to the log with
+ * {@code blackjack.tracing.log-spans}.
+ */
+@Configuration
+public class TracingConfig {
+
+    // The command listener finds the span of the calling repository in the Reactor context
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoObservations(ObservationRegistry registry) {
+        return settings -> settings
+                .contextProvider(ContextProviderFactory.create(registry))
+                .addCommandListener(new MongoObservationCommandListener(registry));
+    }
+
+    @Bean
+    @ConditionalOnProperty("blackjack.tracing.log-spans")
+    public SpanExporter loggingSpanExporter() {
+        return LoggingSpanExporter.create();
+    }
+}
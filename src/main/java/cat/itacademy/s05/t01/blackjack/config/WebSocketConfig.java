@@ -0,0 +1,19 @@
+package cat.itacademy.s05.t01.blackjack.config;
+
+import cat.itacademy.s05.t01.blackjack.controller.GameWebSocketHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.reactive.handler.SimpleUrlHandlerMapping;
+
+import java.util.Map;
+
+@Configuration
+public class WebSocketConfig {
+
+    // Ahead of the annotated controllers, so /game/{id}/ws is not taken for a REST path
+    @Bean
+    public HandlerMapping webSocketMapping(GameWebSocketHandler gameWebSocketHandler) {
+        return new SimpleUrlHandlerMapping(Map.of(GameWebSocketHandler.PATH, gameWebSocketHandler), -1);
+    }
+}
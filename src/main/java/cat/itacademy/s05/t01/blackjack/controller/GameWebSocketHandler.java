@@ -0,0 +1,60 @@
+package cat.itacademy.s05.t01.blackjack.controller;
+
+import cat.itacademy.s05.t01.blackjack.dto.GameSessionFrame;
+import cat.itacademy.s05.t01.blackjack.dto.PlayRequestDTO;
+import cat.itacademy.s05.t01.blackjack.service.GameService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebSocket channel bound to one game at {@code /game/{id}/ws}. Each text
+ * frame the client sends is a move ("HIT", "STAND"...) and every frame sent
+ * back is a {@link GameSessionFrame} as JSON, starting with the current state.
+ */
+@Component
+public class GameWebSocketHandler implements WebSocketHandler {
+
+    public static final String PATH = "/game/{id}/ws";
+
+    private final GameService gameService;
+    private final ObjectMapper objectMapper;
+
+    public GameWebSocketHandler(GameService gameService, ObjectMapper objectMapper) {
+        this.gameService = gameService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> handle(WebSocketSession session) {
+        Flux<PlayRequestDTO> moves = session.receive()
+                .map(WebSocketMessage::getPayloadAsText)
+                .map(PlayRequestDTO::new);
+
+        Flux<WebSocketMessage> frames = gameService.playSession(gameId(session), moves)
+                // An unknown game gets one error frame before the session closes
+                .onErrorResume(ex -> Flux.just(GameSessionFrame.builder().error(ex.getMessage()).build()))
+                .map(frame -> session.textMessage(toJson(frame)));
+
+        return session.send(frames);
+    }
+
+    private String gameId(WebSocketSession session) {
+        // /game/{id}/ws
+        String[] segments = session.getHandshakeInfo().getUri().getPath().split("/");
+        return segments[segments.length - 2];
+    }
+
+    private String toJson(GameSessionFrame frame) {
+        try {
+            return objectMapper.writeValueAsString(frame);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not write game frame", ex);
+        }
+    }
+}
@@ -3,9 +3,11 @@ package cat.itacademy.s05.t01.blackjack.controller;
 import cat.itacademy.s05.t01.blackjack.dto.PlayerRankingResponse;
 import cat.itacademy.s05.t01.blackjack.dto.PlayerResponse;
 import cat.itacademy.s05.t01.blackjack.dto.PlayerUpdateRequest;
+import cat.itacademy.s05.t01.blackjack.dto.RankingEvent;
 import cat.itacademy.s05.t01.blackjack.service.PlayerService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -31,8 +33,16 @@ public class PlayerController {
 
     @GetMapping("/ranking")
     @ResponseStatus(HttpStatus.OK)
-    public Flux<PlayerRankingResponse> getRanking() {
-        return playerService.getRanking();
+    public Flux<PlayerRankingResponse> getRanking(
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor
+    ) {
+        return playerService.getRanking(limit, cursor);
+    }
+
+    @GetMapping(value = "/ranking/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<RankingEvent> streamRankingChanges() {
+        return playerService.streamRankingChanges();
     }
 
 }
@@ -0,0 +1,26 @@
+package cat.itacademy.s05.t01.blackjack.controller;
+
+import cat.itacademy.s05.t01.blackjack.dto.SimulationRequest;
+import cat.itacademy.s05.t01.blackjack.dto.SimulationResponse;
+import cat.itacademy.s05.t01.blackjack.service.SimulationService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/simulation")
+public class SimulationController {
+
+    private final SimulationService simulationService;
+
+    public SimulationController(SimulationService simulationService) {
+        this.simulationService = simulationService;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<SimulationResponse> simulate(@Valid @RequestBody SimulationRequest request) {
+        return simulationService.simulate(request);
+    }
+}
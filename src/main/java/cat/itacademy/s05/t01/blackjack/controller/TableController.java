@@ -0,0 +1,58 @@
+package cat.itacademy.s05.t01.blackjack.controller;
+
+import cat.itacademy.s05.t01.blackjack.dto.JoinTableRequest;
+import cat.itacademy.s05.t01.blackjack.dto.PlayRequestDTO;
+import cat.itacademy.s05.t01.blackjack.dto.TableResponse;
+import cat.itacademy.s05.t01.blackjack.service.TableService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/table")
+public class TableController {
+
+    private final TableService tableService;
+
+    public TableController(TableService tableService) {
+        this.tableService = tableService;
+    }
+
+    @PostMapping("/new")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<TableResponse> createTable() {
+        return tableService.createTable();
+    }
+
+    @GetMapping("/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<TableResponse> getTable(@PathVariable String id) {
+        return tableService.getTable(id);
+    }
+
+    @PostMapping("/{id}/join")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<TableResponse> joinTable(
+            @PathVariable String id,
+            @Valid @RequestBody JoinTableRequest request
+    ) {
+        return tableService.joinTable(id, request);
+    }
+
+    @PostMapping("/{id}/round")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<TableResponse> startRound(@PathVariable String id) {
+        return tableService.startRound(id);
+    }
+
+    @PostMapping("/{id}/seat/{seat}/play")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<TableResponse> playSeat(
+            @PathVariable String id,
+            @PathVariable int seat,
+            @Valid @RequestBody PlayRequestDTO request
+    ) {
+        return tableService.playSeat(id, seat, request);
+    }
+}
@@ -0,0 +1,8 @@
+package cat.itacademy.s05.t01.blackjack.dto;
+
+import java.util.List;
+
+public record BatchMoveRequest(
+        String gameId,
+        List<String> moves
+) { }
@@ -0,0 +1,15 @@
+package cat.itacademy.s05.t01.blackjack.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BatchMoveResult {
+    private String gameId;
+    // Position of the move in the game's move list, null when the whole game failed
+    private Integer index;
+    private String move;
+    private PlayResultDTO result;
+    private String error;
+}
@@ -14,4 +14,9 @@ public class GameDetailsResponse {
     private String status;
     private int playerHandValue;
     private int dealerHandValue;
+    private List<HandResponse> hands;
+    private int activeHand;
+    private boolean insured;
+    // Basic strategy hint while the game is in progress, null once it is finished
+    private String suggestedMove;
 }
@@ -0,0 +1,15 @@
+package cat.itacademy.s05.t01.blackjack.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Frame pushed on a game WebSocket: the game state after a move, or the
+ * reason a move was rejected. A rejected move leaves the game as it was.
+ */
+@Data
+@Builder
+public class GameSessionFrame {
+    private PlayResultDTO state;
+    private String error;
+}
@@ -0,0 +1,17 @@
+package cat.itacademy.s05.t01.blackjack.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class HandResponse {
+    private List<String> cards;
+    private int value;
+    private int bet;
+    private String status;
+    // Set once the game is settled
+    private String result;
+}
@@ -14,5 +14,9 @@ public class PlayResultDTO {
     private List<String> dealerHand;
     private int playerValue;
     private int dealerValue;
+    // Every hand after splits; playerHand and playerValue show hands[activeHand]
+    private List<HandResponse> hands;
+    private int activeHand;
+    private double netUnits;
     private String message;
 }
@@ -12,4 +12,6 @@ public class PlayerRankingResponse {
     private int gamesWon;
     private int gamesLost;
     private double winRate;
+    // Pass as ?cursor= to continue the ranking after this player
+    private String cursor;
 }
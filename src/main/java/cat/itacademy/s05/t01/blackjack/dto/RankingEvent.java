@@ -0,0 +1,18 @@
+package cat.itacademy.s05.t01.blackjack.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class RankingEvent {
+    private Long playerId;
+    private String name;
+    // 1-based; previousRank is null for a player who just joined
+    private Integer previousRank;
+    private int rank;
+    private int gamesPlayed;
+    private int gamesWon;
+    private int gamesLost;
+    private double winRate;
+}
@@ -0,0 +1,20 @@
+package cat.itacademy.s05.t01.blackjack.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class SeatResponse {
+    private int seat;
+    private Long playerId;
+    private String playerName;
+    // Empty until the player is dealt into a round
+    private List<String> cards;
+    private int value;
+    private int bet;
+    private String status;
+    private String result;
+}
@@ -0,0 +1,20 @@
+package cat.itacademy.s05.t01.blackjack.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public record SimulationRequest(
+        @NotNull(message = "Number of hands must be provided")
+        @Min(value = 1, message = "At least one hand must be simulated")
+        @Max(value = 10_000_000, message = "At most 10000000 hands can be simulated at once")
+        Long hands,
+
+        @Min(value = 1, message = "Decks must be between 1 and 8")
+        @Max(value = 8, message = "Decks must be between 1 and 8")
+        Integer decks,
+
+        String strategy,
+
+        Long seed
+) {}
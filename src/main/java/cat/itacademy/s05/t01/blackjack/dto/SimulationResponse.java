@@ -0,0 +1,21 @@
+package cat.itacademy.s05.t01.blackjack.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class SimulationResponse {
+    private long hands;
+    private int decks;
+    private String strategy;
+    private long seed;
+    private long wins;
+    private long losses;
+    private long pushes;
+    private long playerBusts;
+    private long dealerBusts;
+    private double winRate;
+    private double expectedValue;
+    private long elapsedMillis;
+}
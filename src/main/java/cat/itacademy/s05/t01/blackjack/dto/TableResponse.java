@@ -0,0 +1,17 @@
+package cat.itacademy.s05.t01.blackjack.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class TableResponse {
+    private String tableId;
+    private int roundNumber;
+    private String roundStatus;
+    private List<String> dealerHand;
+    private int dealerValue;
+    private List<SeatResponse> seats;
+}
@@ -1,6 +1,7 @@
 package cat.itacademy.s05.t01.blackjack.exception;
 
 import cat.itacademy.s05.t01.blackjack.dto.ErrorResponse;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -47,6 +48,20 @@ public class GlobalExceptionHandler {
         return Mono.just(ResponseEntity.status(status).body(body));
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public Mono<ResponseEntity<ErrorResponse>> handleConflict(OptimisticLockingFailureException ex, ServerWebExchange exchange) {
+        HttpStatus status = HttpStatus.CONFLICT;
+        ErrorResponse body = buildErrorResponse(status, ex, exchange);
+        return Mono.just(ResponseEntity.status(status).body(body));
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public Mono<ResponseEntity<ErrorResponse>> handleTooManyRequests(TooManyRequestsException ex, ServerWebExchange exchange) {
+        HttpStatus status = HttpStatus.TOO_MANY_REQUESTS;
+        ErrorResponse body = buildErrorResponse(status, ex, exchange);
+        return Mono.just(ResponseEntity.status(status).body(body));
+    }
+
     @ExceptionHandler(WebExchangeBindException.class)
     public Mono<ResponseEntity<ErrorResponse>> handleBindException(WebExchangeBindException ex, ServerWebExchange exchange) {
         HttpStatus status = HttpStatus.BAD_REQUEST;
@@ -0,0 +1,7 @@
+package cat.itacademy.s05.t01.blackjack.exception;
+
+public class TooManyRequestsException extends RuntimeException {
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
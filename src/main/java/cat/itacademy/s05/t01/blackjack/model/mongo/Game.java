@@ -2,6 +2,7 @@ package cat.itacademy.s05.t01.blackjack.model.mongo;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.List;
@@ -18,10 +19,38 @@ public class Game {
 
     private Long playerId;
 
-    private List<String> playerHand;
-    private List<String> dealerHand;
+    // Cards are encoded one byte each, see util.Cards.
+    // Splitting adds hands; moves always apply to hands[activeHand]
+    private List<PlayerHand> hands;
+    private int activeHand;
+    private byte[] dealerHand;
 
-    private List<String> deck;
+    // Single hand of games created before splits. Read into hands when
+    // the game is loaded and removed by its next write
+    private byte[] playerHand;
+
+    private boolean insured;
+
+    // Games are dealt from a shared shoe, starting at their reserved block.
+    // blockEnd is where the block stops; 0 for games that may deal to the end of
+    // the shoe, which are those with a private deck or dealt before blocks ended
+    private String shoeId;
+    private int nextCardIndex;
+    private int blockEnd;
+
+    // Private deck of games created before shoes, dealt from nextCardIndex.
+    // Never modified after creation, moves only advance the cursor
+    private byte[] deck;
 
     private GameStatus status;
+
+    // Moves applied so far, across all hands
+    private int moves;
+
+    // Units won (or lost when negative) by all hands and insurance, set when settled
+    private double netUnits;
+
+    // Incremented by every move update, which only applies to the version it read
+    @Version
+    private Long version;
 }
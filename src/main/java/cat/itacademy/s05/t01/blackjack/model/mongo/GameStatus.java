@@ -6,5 +6,6 @@ public enum GameStatus {
     PLAYER_LOSE,
     PLAYER_BUST,
     DEALER_BUST,
-    TIE
+    TIE,
+    PLAYER_SURRENDER
 }
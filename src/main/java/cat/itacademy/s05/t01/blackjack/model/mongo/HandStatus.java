@@ -0,0 +1,8 @@
+package cat.itacademy.s05.t01.blackjack.model.mongo;
+
+public enum HandStatus {
+    PLAYING,
+    STOOD,
+    BUST,
+    SURRENDERED
+}
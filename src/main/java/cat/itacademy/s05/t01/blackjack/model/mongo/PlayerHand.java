@@ -0,0 +1,28 @@
+package cat.itacademy.s05.t01.blackjack.model.mongo;
+
+import lombok.*;
+
+/**
+ * One of the player's hands, stored as a sub-document of {@link Game} so a
+ * move on it only rewrites this element of the {@code hands} array.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PlayerHand {
+
+    private byte[] cards;
+
+    // Evaluated once when a card is added, responses read them as they are
+    private int total;
+    private boolean soft;
+
+    // Units at stake: 1, or 2 once doubled
+    private int bet;
+
+    private HandStatus status;
+
+    // Outcome of this hand once the game is settled
+    private GameStatus result;
+}
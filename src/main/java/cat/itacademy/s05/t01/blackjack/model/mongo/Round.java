@@ -0,0 +1,25 @@
+package cat.itacademy.s05.t01.blackjack.model.mongo;
+
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * The round being dealt at a {@link Table}. There is a single dealer hand
+ * for every seat, played once when the last seat has finished.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class Round {
+
+    private int number;
+
+    private RoundStatus status;
+
+    private byte[] dealerHand;
+
+    // Seats still playing stand once nobody has acted by then
+    private Instant actionDeadline;
+}
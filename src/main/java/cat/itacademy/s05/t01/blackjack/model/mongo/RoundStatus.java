@@ -0,0 +1,6 @@
+package cat.itacademy.s05.t01.blackjack.model.mongo;
+
+public enum RoundStatus {
+    PLAYING,
+    SETTLED
+}
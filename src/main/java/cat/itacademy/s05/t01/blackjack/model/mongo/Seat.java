@@ -0,0 +1,19 @@
+package cat.itacademy.s05.t01.blackjack.model.mongo;
+
+import lombok.*;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class Seat {
+
+    // 1 to blackjack.table.seats, in dealing order
+    private int number;
+
+    private Long playerId;
+    private String playerName;
+
+    // Hand of the current round, null for players seated after it was dealt
+    private PlayerHand hand;
+}
@@ -0,0 +1,28 @@
+package cat.itacademy.s05.t01.blackjack.model.mongo;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "shoes")
+public class Shoe {
+
+    @Id
+    private String id;
+
+    private int decks;
+
+    // Shuffled once and never modified; games keep their own position in it
+    private byte[] cards;
+
+    // No new game is seated once dealing reaches the cut card
+    private int cutCard;
+
+    // First free card past the cut card, claimed in blocks by games that dealt
+    // all of theirs; see ShoeBlockRepository
+    private int nextBlock;
+}
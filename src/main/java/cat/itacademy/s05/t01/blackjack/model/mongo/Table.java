@@ -0,0 +1,36 @@
+package cat.itacademy.s05.t01.blackjack.model.mongo;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.List;
+
+/**
+ * A table where several players share one shoe and one dealer. Unlike a
+ * {@link Game}, the table keeps the whole shoe and deals rounds from it
+ * until the cut card.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "tables")
+public class Table {
+
+    @Id
+    private String id;
+
+    private List<Seat> seats;
+
+    private String shoeId;
+    private int nextCardIndex;
+
+    // Null until the first round is dealt
+    private Round round;
+
+    // Incremented by every write, which only applies to the version it read
+    @Version
+    private Long version;
+}
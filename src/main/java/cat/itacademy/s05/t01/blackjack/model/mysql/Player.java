@@ -20,4 +20,7 @@ public class Player {
     private int gamesWon;
     private int gamesLost;
 
+    // Stored so the ranking can be ordered and paged by an index, see PlayerRepository.recordResult
+    private double winRate;
+
 }
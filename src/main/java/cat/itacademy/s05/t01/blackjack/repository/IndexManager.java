@@ -0,0 +1,189 @@
+package cat.itacademy.s05.t01.blackjack.repository;
+
+import cat.itacademy.s05.t01.blackjack.model.mongo.Game;
+import cat.itacademy.s05.t01.blackjack.model.mongo.GameStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Declares the indexes behind the hot lookups and creates the missing ones at
+ * startup. {@code schema.sql} creates them too, but only for a new {@code players}
+ * table; databases created before an index was declared get it from here, once
+ * {@link SchemaMigration} has added the columns it covers.
+ */
+@Slf4j
+@Component
+public class IndexManager {
+
+    public record IndexStatus(String store, String collection, String name, boolean present) {}
+
+    public static final String PLAYERS_NAME = "uk_players_name";
+    public static final String PLAYERS_RANKING = "idx_players_ranking";
+    public static final String PLAYERS_UPDATED_AT = "idx_players_updated_at";
+    public static final String GAMES_PLAYER_STATUS = "playerId_status";
+    public static final String GAMES_IN_PROGRESS = "status_inProgress";
+
+    private static final String PLAYERS = "players";
+    private static final String GAMES = "games";
+
+    // How each index on players is added to an existing table
+    private static final Map<String, String> PLAYER_INDEXES = new LinkedHashMap<>();
+
+    static {
+        PLAYER_INDEXES.put(PLAYERS_NAME, "ADD UNIQUE INDEX " + PLAYERS_NAME + " (name)");
+        PLAYER_INDEXES.put(PLAYERS_RANKING, "ADD INDEX " + PLAYERS_RANKING + " (games_won DESC, win_rate DESC, id)");
+        PLAYER_INDEXES.put(PLAYERS_UPDATED_AT, "ADD INDEX " + PLAYERS_UPDATED_AT + " (updated_at)");
+    }
+
+    private final DatabaseClient databaseClient;
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public IndexManager(DatabaseClient databaseClient, ReactiveMongoTemplate mongoTemplate) {
+        this.databaseClient = databaseClient;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // In the background: building an index on a large table can take minutes
+    @EventListener(ApplicationReadyEvent.class)
+    public void createMissingIndexes() {
+        ensureIndexes().subscribe(this::report, ex -> log.warn("Could not create the missing indexes", ex));
+    }
+
+    public Mono<List<IndexStatus>> ensureIndexes() {
+        return Mono.when(ensurePlayerIndexes(), ensureGameIndexes())
+                .then(check());
+    }
+
+    public Mono<List<IndexStatus>> check() {
+        Mono<List<IndexStatus>> players = playerIndexNames().map(names -> PLAYER_INDEXES.keySet().stream()
+                .map(name -> new IndexStatus("mysql", PLAYERS, name, names.contains(name)))
+                .toList());
+        Mono<List<IndexStatus>> games = gameIndexNames().map(names -> gameIndexes().stream()
+                .map(index -> new IndexStatus("mongo", GAMES, indexName(index), names.contains(indexName(index))))
+                .toList());
+
+        return Mono.zip(players, games, (mysql, mongo) -> {
+            List<IndexStatus> all = new ArrayList<>(mysql);
+            all.addAll(mongo);
+            return all;
+        });
+    }
+
+    public Mono<Void> dropIndexes() {
+        Mono<Void> players = playerIndexNames()
+                .flatMapMany(names -> Flux.fromIterable(PLAYER_INDEXES.keySet()).filter(names::contains))
+                .concatMap(name -> databaseClient.sql("ALTER TABLE players DROP INDEX " + name).then())
+                .then();
+        Mono<Void> games = gameIndexNames()
+                .flatMapMany(names -> Flux.fromIterable(gameIndexes())
+                        .map(IndexManager::indexName)
+                        .filter(names::contains))
+                .concatMap(name -> mongoTemplate.indexOps(Game.class).dropIndex(name))
+                .then();
+        return Mono.when(players, games);
+    }
+
+    static List<Index> gameIndexes() {
+        return List.of(
+                // A player's games by status, e.g. the ones still being played
+                new Index().on("playerId", Sort.Direction.ASC).on("status", Sort.Direction.ASC)
+                        .named(GAMES_PLAYER_STATUS),
+                // Only the games being played, a small fraction of all games
+                new Index().on("status", Sort.Direction.ASC)
+                        .partial(PartialIndexFilter.of(Criteria.where("status").is(GameStatus.IN_PROGRESS.name())))
+                        .named(GAMES_IN_PROGRESS)
+        );
+    }
+
+    private Mono<Void> ensurePlayerIndexes() {
+        return playerIndexNames()
+                .flatMapMany(names -> Flux.fromIterable(PLAYER_INDEXES.keySet())
+                        .filter(name -> !names.contains(name)))
+                .concatMap(name -> {
+                    Mono<Boolean> creatable = name.equals(PLAYERS_NAME)
+                            ? duplicateNames().map(duplicates -> {
+                                if (!duplicates.isEmpty()) {
+                                    log.error("Cannot create {}: players share a name, e.g. {}", PLAYERS_NAME, duplicates);
+                                }
+                                return duplicates.isEmpty();
+                            })
+                            : Mono.just(true);
+
+                    return creatable.filter(Boolean::booleanValue).flatMap(ok -> {
+                        log.info("Creating index {} on {}", name, PLAYERS);
+                        return databaseClient.sql("ALTER TABLE players " + PLAYER_INDEXES.get(name)
+                                        + ", ALGORITHM=INPLACE, LOCK=NONE")
+                                .then();
+                    });
+                })
+                .then();
+    }
+
+    private Mono<Void> ensureGameIndexes() {
+        return gameIndexNames()
+                .flatMapMany(names -> Flux.fromIterable(gameIndexes())
+                        .filter(index -> !names.contains(indexName(index))))
+                .concatMap(index -> {
+                    log.info("Creating index {} on {}", indexName(index), GAMES);
+                    return mongoTemplate.indexOps(Game.class).createIndex(index);
+                })
+                .then();
+    }
+
+    private Mono<Set<String>> playerIndexNames() {
+        return databaseClient.sql("""
+                        SELECT DISTINCT index_name AS name FROM information_schema.statistics
+                        WHERE table_schema = DATABASE() AND table_name = 'players'
+                        """)
+                .map(row -> row.get("name", String.class))
+                .all()
+                .collect(Collectors.toSet());
+    }
+
+    private Mono<List<String>> duplicateNames() {
+        return databaseClient.sql("SELECT name FROM players GROUP BY name HAVING COUNT(*) > 1 LIMIT 5")
+                .map(row -> row.get("name", String.class))
+                .all()
+                .collectList();
+    }
+
+    private Mono<Set<String>> gameIndexNames() {
+        return mongoTemplate.indexOps(Game.class).getIndexInfo()
+                .map(IndexInfo::getName)
+                .collect(Collectors.toSet());
+    }
+
+    private void report(List<IndexStatus> statuses) {
+        List<String> missing = statuses.stream()
+                .filter(status -> !status.present())
+                .map(status -> status.collection() + "." + status.name())
+                .toList();
+        if (missing.isEmpty()) {
+            log.info("All {} declared indexes are present", statuses.size());
+        } else {
+            log.warn("Missing indexes: {}", missing);
+        }
+    }
+
+    private static String indexName(Index index) {
+        return index.getIndexOptions().getString("name");
+    }
+}
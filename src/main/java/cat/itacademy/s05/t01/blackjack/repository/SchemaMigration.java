@@ -0,0 +1,81 @@
+package cat.itacademy.s05.t01.blackjack.repository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Adds the columns the code reads to a {@code players} table created before they
+ * were declared; {@code schema.sql} only has them for a new table. Runs once
+ * {@code schema.sql} has, before the application serves requests. Indexes are
+ * left to {@link IndexManager}, which builds them in the background.
+ */
+@Slf4j
+@Component
+@DependsOnDatabaseInitialization
+public class SchemaMigration {
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(5);
+
+    // Also rewrites rates stored by the rounding DECIMAL division of older versions
+    private static final String BACKFILL_WIN_RATE = """
+            UPDATE players
+            SET win_rate = CAST(games_won AS DOUBLE) / games_played
+            WHERE games_played > 0 AND win_rate <> CAST(games_won AS DOUBLE) / games_played
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    public SchemaMigration(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        migrateWinRate().then(migrateUpdatedAt()).block(TIMEOUT);
+    }
+
+    public Mono<Void> migrateWinRate() {
+        return addColumn("players", "win_rate", "DOUBLE DEFAULT 0")
+                .then(databaseClient.sql(BACKFILL_WIN_RATE).fetch().rowsUpdated())
+                .doOnNext(updated -> {
+                    if (updated > 0) {
+                        log.info("Computed the win rate of {} players", updated);
+                    }
+                })
+                .then();
+    }
+
+    // Existing rows get the time of the migration, so the leaderboard reads them once more
+    public Mono<Void> migrateUpdatedAt() {
+        return addColumn("players", "updated_at",
+                "TIMESTAMP(3) DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3)");
+    }
+
+    private Mono<Void> addColumn(String table, String column, String definition) {
+        return columnExists(table, column)
+                .filter(exists -> !exists)
+                .flatMap(missing -> {
+                    log.info("Adding column {}.{}", table, column);
+                    return databaseClient.sql("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition).then();
+                });
+    }
+
+    // SCHEMA() is the database in MySQL and the schema in H2, which keeps names upper case
+    private Mono<Boolean> columnExists(String table, String column) {
+        return databaseClient.sql("""
+                        SELECT COUNT(*) AS n FROM information_schema.columns
+                        WHERE table_schema = SCHEMA() AND LOWER(table_name) = :table AND LOWER(column_name) = :column
+                        """)
+                .bind("table", table)
+                .bind("column", column)
+                .map(row -> row.get("n", Long.class))
+                .one()
+                .map(count -> count > 0);
+    }
+}
@@ -0,0 +1,38 @@
+package cat.itacademy.s05.t01.blackjack.repository.mongo;
+
+import cat.itacademy.s05.t01.blackjack.model.mongo.Game;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Targeted updates for moves, so a move never rewrites the whole game document.
+ * Each one is a single findAndModify that only matches the game while it is
+ * still in progress at the version that was read, bumps the version and
+ * returns the updated game. If another request got there first the update
+ * fails with an {@link org.springframework.dao.OptimisticLockingFailureException}.
+ */
+public interface GameMoveRepository {
+
+    /** Stores one changed hand, the active hand and the card cursor. */
+    Mono<Game> saveHand(Game game, int hand);
+
+    /**
+     * Stores every hand, the active hand, the card cursor and insurance. Used
+     * when the number of hands changes (split) and for the first write of a
+     * game stored before splits, whose single legacy hand it replaces.
+     */
+    Mono<Game> saveHands(Game game);
+
+    /** Stores the final hands, card cursor, status and result of a finished game. */
+    Mono<Game> finishGame(Game game);
+
+    /**
+     * Stores several games in one unordered bulk write: finished games as
+     * {@link #finishGame}, the others as {@link #saveHands}, with the same
+     * version check. Emits the ids of the games that were stored, the others
+     * were modified by another request in the meantime.
+     */
+    Mono<Set<String>> saveGames(List<Game> games);
+}
@@ -0,0 +1,120 @@
+package cat.itacademy.s05.t01.blackjack.repository.mongo;
+
+import cat.itacademy.s05.t01.blackjack.model.mongo.Game;
+import cat.itacademy.s05.t01.blackjack.model.mongo.GameStatus;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+public class GameMoveRepositoryImpl implements GameMoveRepository {
+
+    private static final String WRITE_TOKEN = "writeToken";
+
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public GameMoveRepositoryImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Mono<Game> saveHand(Game game, int hand) {
+        Update update = new Update()
+                .set("hands." + hand, game.getHands().get(hand))
+                .set("activeHand", game.getActiveHand())
+                .set("nextCardIndex", game.getNextCardIndex())
+                .set("blockEnd", game.getBlockEnd())
+                .set("moves", game.getMoves())
+                .inc("version", 1);
+
+        return applyMove(game, update);
+    }
+
+    @Override
+    public Mono<Game> saveHands(Game game) {
+        return applyMove(game, handsUpdate(game));
+    }
+
+    @Override
+    public Mono<Game> finishGame(Game game) {
+        return applyMove(game, finishUpdate(game));
+    }
+
+    @Override
+    public Mono<Set<String>> saveGames(List<Game> games) {
+        // Marks the games this call wrote, in case another write leaves them looking the same
+        String writeToken = UUID.randomUUID().toString();
+        ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Game.class);
+        for (Game game : games) {
+            Update update = game.getStatus() == GameStatus.IN_PROGRESS
+                    ? handsUpdate(game)
+                    : finishUpdate(game);
+            bulk.updateOne(inProgressAt(game), update.set(WRITE_TOKEN, writeToken));
+        }
+
+        Set<String> ids = games.stream().map(Game::getId).collect(Collectors.toSet());
+        return bulk.execute().flatMap(result -> {
+            if (result.getMatchedCount() == games.size()) {
+                return Mono.just(ids);
+            }
+
+            // The result only has counts: the games stored are those still carrying
+            // this call's token, which no other write can have set
+            Query query = Query.query(Criteria.where("_id").in(ids).and(WRITE_TOKEN).is(writeToken));
+            query.fields().include("_id");
+
+            return mongoTemplate.find(query, Game.class)
+                    .map(Game::getId)
+                    .collect(Collectors.toSet());
+        });
+    }
+
+    private Update handsUpdate(Game game) {
+        return new Update()
+                .set("hands", game.getHands())
+                .set("activeHand", game.getActiveHand())
+                .set("nextCardIndex", game.getNextCardIndex())
+                .set("blockEnd", game.getBlockEnd())
+                .set("insured", game.isInsured())
+                .set("moves", game.getMoves())
+                .unset("playerHand")
+                .inc("version", 1);
+    }
+
+    private Update finishUpdate(Game game) {
+        return new Update()
+                .set("hands", game.getHands())
+                .set("dealerHand", game.getDealerHand())
+                .set("nextCardIndex", game.getNextCardIndex())
+                .set("blockEnd", game.getBlockEnd())
+                .set("status", game.getStatus())
+                .set("netUnits", game.getNetUnits())
+                .set("moves", game.getMoves())
+                .unset("playerHand")
+                .inc("version", 1);
+    }
+
+    private Query inProgressAt(Game game) {
+        return Query.query(Criteria.where("_id").is(game.getId())
+                .and("version").is(game.getVersion())
+                .and("status").is(GameStatus.IN_PROGRESS));
+    }
+
+    private Mono<Game> applyMove(Game game, Update update) {
+        return mongoTemplate.findAndModify(inProgressAt(game), update, RETURN_NEW, Game.class)
+                .switchIfEmpty(Mono.error(() -> new OptimisticLockingFailureException(
+                        "Game " + game.getId() + " was modified by another request")));
+    }
+}
@@ -0,0 +1,18 @@
+package cat.itacademy.s05.t01.blackjack.repository.mongo;
+
+import cat.itacademy.s05.t01.blackjack.model.mongo.Shoe;
+import reactor.core.publisher.Mono;
+
+/**
+ * Blocks of a shoe past its cut card, for games that dealt all of their own.
+ * The next free card is kept on the shoe document, so any instance can hand
+ * out a block of any shoe without two games getting the same cards.
+ */
+public interface ShoeBlockRepository {
+
+    /**
+     * Claims the next {@code cards} cards with one atomic increment and emits
+     * the first of them, which is past the end of the shoe once it is used up.
+     */
+    Mono<Integer> claimBlock(Shoe shoe, int cards);
+}
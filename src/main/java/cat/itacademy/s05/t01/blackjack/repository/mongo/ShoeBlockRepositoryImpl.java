@@ -0,0 +1,42 @@
+package cat.itacademy.s05.t01.blackjack.repository.mongo;
+
+import cat.itacademy.s05.t01.blackjack.model.mongo.Shoe;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+public class ShoeBlockRepositoryImpl implements ShoeBlockRepository {
+
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public ShoeBlockRepositoryImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Mono<Integer> claimBlock(Shoe shoe, int cards) {
+        // Shoes stored before blocks were claimed here start past their cut card,
+        // which no game was ever seated beyond
+        Mono<Void> start = Mono.defer(() -> mongoTemplate.updateFirst(
+                        Query.query(Criteria.where("_id").is(shoe.getId()).and("nextBlock").exists(false)),
+                        new Update().set("nextBlock", shoe.getCutCard()),
+                        Shoe.class)
+                .then());
+
+        return increment(shoe, cards)
+                .switchIfEmpty(start.then(increment(shoe, cards)));
+    }
+
+    private Mono<Integer> increment(Shoe shoe, int cards) {
+        Query query = Query.query(Criteria.where("_id").is(shoe.getId()).and("nextBlock").exists(true));
+        query.fields().include("nextBlock");
+
+        return Mono.defer(() -> mongoTemplate.findAndModify(query, new Update().inc("nextBlock", cards), RETURN_NEW, Shoe.class))
+                .map(claimed -> claimed.getNextBlock() - cards);
+    }
+}
@@ -0,0 +1,7 @@
+package cat.itacademy.s05.t01.blackjack.repository.mongo;
+
+import cat.itacademy.s05.t01.blackjack.model.mongo.Shoe;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface ShoeReactiveRepository extends ReactiveMongoRepository<Shoe, String>, ShoeBlockRepository {
+}
@@ -0,0 +1,7 @@
+package cat.itacademy.s05.t01.blackjack.repository.mongo;
+
+import cat.itacademy.s05.t01.blackjack.model.mongo.Table;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface TableReactiveRepository extends ReactiveMongoRepository<Table, String> {
+}
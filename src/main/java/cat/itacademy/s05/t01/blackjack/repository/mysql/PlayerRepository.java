@@ -1,10 +1,80 @@
 package cat.itacademy.s05.t01.blackjack.repository.mysql;
 
 import cat.itacademy.s05.t01.blackjack.model.mysql.Player;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-public interface PlayerRepository extends ReactiveCrudRepository<Player, Long> {
+import java.time.LocalDateTime;
+
+public interface PlayerRepository extends ReactiveCrudRepository<Player, Long>, PlayerResultRepository,
+        PlayerUpsertRepository {
 
     Mono<Player> findByName(String name);
+
+    /**
+     * Counts one finished game in a single atomic statement, so concurrent
+     * results for the same player never overwrite each other.
+     * <p>
+     * {@code win_rate} is assigned first because MySQL evaluates later
+     * assignments against the already updated columns. It is divided as a
+     * DOUBLE, like the leaderboard does in Java; the DECIMAL division of
+     * {@code * 1.0} rounds, and ranking cursors built from one would not match
+     * rows stored with the other.
+     */
+    @Modifying
+    @Query("""
+            UPDATE players
+            SET win_rate = CAST(games_won + :won AS DOUBLE) / (games_played + 1),
+                games_played = games_played + 1,
+                games_won = games_won + :won,
+                games_lost = games_lost + :lost
+            WHERE id = :id
+            """)
+    Mono<Integer> recordResult(Long id, int won, int lost);
+
+    /**
+     * Renames a player without touching the counters, so a result recorded
+     * between reading the player and renaming it is kept.
+     */
+    @Modifying
+    @Query("UPDATE players SET name = :name WHERE id = :id")
+    Mono<Integer> rename(Long id, String name);
+
+    /**
+     * Players changed at or after the given time of the database clock; every
+     * write stamps {@code updated_at}, see {@code schema.sql}.
+     */
+    @Query("SELECT * FROM players WHERE updated_at >= :since")
+    Flux<Player> findUpdatedSince(LocalDateTime since);
+
+    /** The database clock, which stamps {@code updated_at}. */
+    @Query("SELECT LOCALTIMESTAMP(3)")
+    Mono<LocalDateTime> currentTime();
+
+    /**
+     * First page of the ranking, read in {@code idx_players_ranking} order.
+     */
+    @Query("""
+            SELECT * FROM players
+            ORDER BY games_won DESC, win_rate DESC, id
+            LIMIT :limit
+            """)
+    Flux<Player> findRanking(int limit);
+
+    /**
+     * Ranking page starting right after the player with the given sort key,
+     * so deep pages cost the same as the first one.
+     */
+    @Query("""
+            SELECT * FROM players
+            WHERE games_won < :gamesWon
+               OR (games_won = :gamesWon AND win_rate < :winRate)
+               OR (games_won = :gamesWon AND win_rate = :winRate AND id > :id)
+            ORDER BY games_won DESC, win_rate DESC, id
+            LIMIT :limit
+            """)
+    Flux<Player> findRankingAfter(int gamesWon, double winRate, Long id, int limit);
 }
@@ -0,0 +1,17 @@
+package cat.itacademy.s05.t01.blackjack.repository.mysql;
+
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface PlayerResultRepository {
+
+    record Result(Long playerId, int won, int lost) {}
+
+    /**
+     * Counts one finished game for each player in a single UPDATE, with the
+     * same assignments as {@link PlayerRepository#recordResult}. Every player
+     * may appear only once.
+     */
+    Mono<Long> recordResults(List<Result> results);
+}
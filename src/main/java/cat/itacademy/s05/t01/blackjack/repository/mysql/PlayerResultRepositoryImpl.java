@@ -0,0 +1,53 @@
+package cat.itacademy.s05.t01.blackjack.repository.mysql;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.StringJoiner;
+
+public class PlayerResultRepositoryImpl implements PlayerResultRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public PlayerResultRepositoryImpl(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Mono<Long> recordResults(List<Result> results) {
+        if (results.isEmpty()) {
+            return Mono.just(0L);
+        }
+
+        StringBuilder won = new StringBuilder("CASE id");
+        StringBuilder lost = new StringBuilder("CASE id");
+        StringJoiner ids = new StringJoiner(", ");
+        for (int i = 0; i < results.size(); i++) {
+            won.append(" WHEN :id").append(i).append(" THEN :won").append(i);
+            lost.append(" WHEN :id").append(i).append(" THEN :lost").append(i);
+            ids.add(":id" + i);
+        }
+        won.append(" ELSE 0 END");
+        lost.append(" ELSE 0 END");
+
+        String sql = """
+                UPDATE players
+                SET win_rate = CAST(games_won + %1$s AS DOUBLE) / (games_played + 1),
+                    games_played = games_played + 1,
+                    games_won = games_won + %1$s,
+                    games_lost = games_lost + %2$s
+                WHERE id IN (%3$s)
+                """.formatted(won, lost, ids);
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql);
+        for (int i = 0; i < results.size(); i++) {
+            Result result = results.get(i);
+            spec = spec.bind("id" + i, result.playerId())
+                    .bind("won" + i, result.won())
+                    .bind("lost" + i, result.lost());
+        }
+
+        return spec.fetch().rowsUpdated();
+    }
+}
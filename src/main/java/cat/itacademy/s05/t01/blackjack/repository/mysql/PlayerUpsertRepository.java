@@ -0,0 +1,15 @@
+package cat.itacademy.s05.t01.blackjack.repository.mysql;
+
+import reactor.core.publisher.Mono;
+
+public interface PlayerUpsertRepository {
+
+    /**
+     * Id of the player with the given name, creating the player if there is none,
+     * in one atomic statement backed by the unique index on {@code players.name}.
+     * Concurrent calls for a new name all get the id of the single row created.
+     * While that index is missing the player is looked up first and only
+     * inserted when there is none, which is not atomic.
+     */
+    Mono<Long> findOrCreateIdByName(String name);
+}
@@ -0,0 +1,81 @@
+package cat.itacademy.s05.t01.blackjack.repository.mysql;
+
+import cat.itacademy.s05.t01.blackjack.repository.IndexManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+@Slf4j
+public class PlayerUpsertRepositoryImpl implements PlayerUpsertRepository {
+
+    // On a duplicate name, LAST_INSERT_ID(id) reports the existing row's id as the generated one
+    private static final String UPSERT = """
+            INSERT INTO players (name) VALUES (:name)
+            ON DUPLICATE KEY UPDATE id = LAST_INSERT_ID(id)
+            """;
+
+    // MySQL and H2 both list unique indexes as UNIQUE constraints
+    private static final String NAME_IS_UNIQUE = """
+            SELECT COUNT(*) AS n FROM information_schema.table_constraints
+            WHERE table_schema = SCHEMA() AND LOWER(table_name) = 'players'
+              AND LOWER(constraint_name) = :index AND constraint_type = 'UNIQUE'
+            """;
+
+    // The index can be created or dropped while the application runs
+    private static final Duration INDEX_CHECK_INTERVAL = Duration.ofSeconds(30);
+
+    private final DatabaseClient databaseClient;
+    private final Mono<Boolean> nameIsUnique;
+
+    public PlayerUpsertRepositoryImpl(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+        this.nameIsUnique = databaseClient.sql(NAME_IS_UNIQUE)
+                .bind("index", IndexManager.PLAYERS_NAME)
+                .map(row -> row.get("n", Long.class))
+                .one()
+                .map(count -> count > 0)
+                .doOnNext(unique -> {
+                    if (!unique) {
+                        log.warn("{} is missing: players are found by name before being created",
+                                IndexManager.PLAYERS_NAME);
+                    }
+                })
+                .cache(unique -> INDEX_CHECK_INTERVAL, ex -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    @Override
+    public Mono<Long> findOrCreateIdByName(String name) {
+        return nameIsUnique.flatMap(unique -> unique ? upsert(name) : findOrInsert(name));
+    }
+
+    private Mono<Long> upsert(String name) {
+        return databaseClient.sql(UPSERT)
+                .bind("name", name)
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .filter(id -> id > 0)
+                // MySQL always reports the id; H2, used by the tests, only does for new rows
+                .switchIfEmpty(Mono.defer(() -> findId(name)));
+    }
+
+    // Without the unique index the upsert never sees a duplicate and would always insert;
+    // two instances creating the same new name at once can still both insert it
+    private Mono<Long> findOrInsert(String name) {
+        return findId(name).switchIfEmpty(Mono.defer(() -> databaseClient.sql("INSERT INTO players (name) VALUES (:name)")
+                .bind("name", name)
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .one()));
+    }
+
+    // The oldest player of that name, should there already be several
+    private Mono<Long> findId(String name) {
+        return databaseClient.sql("SELECT id FROM players WHERE name = :name ORDER BY id LIMIT 1")
+                .bind("name", name)
+                .map(row -> row.get("id", Long.class))
+                .one();
+    }
+}
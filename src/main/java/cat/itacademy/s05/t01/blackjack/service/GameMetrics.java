@@ -0,0 +1,46 @@
+package cat.itacademy.s05.t01.blackjack.service;
+
+import cat.itacademy.s05.t01.blackjack.model.mongo.Game;
+import cat.itacademy.s05.t01.blackjack.model.mongo.GameStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Counts finished games by outcome and how many moves they took.
+ */
+@Component
+public class GameMetrics {
+
+    private final Map<GameStatus, Counter> outcomes = new EnumMap<>(GameStatus.class);
+    private final DistributionSummary moves;
+
+    public GameMetrics(MeterRegistry registry) {
+        for (GameStatus status : GameStatus.values()) {
+            if (status != GameStatus.IN_PROGRESS) {
+                outcomes.put(status, Counter.builder("blackjack.game.outcomes")
+                        .tag("status", status.name())
+                        .register(registry));
+            }
+        }
+
+        moves = DistributionSummary.builder("blackjack.game.moves")
+                .baseUnit("moves")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(32.0)
+                .register(registry);
+    }
+
+    public void gameFinished(Game game) {
+        Counter outcome = outcomes.get(game.getStatus());
+        if (outcome != null) {
+            outcome.increment();
+        }
+        moves.record(game.getMoves());
+    }
+}
@@ -1,6 +1,7 @@
 package cat.itacademy.s05.t01.blackjack.service;
 
 import cat.itacademy.s05.t01.blackjack.dto.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface GameService {
@@ -8,5 +9,7 @@ public interface GameService {
     Mono<NewGameResponse> createNewGame(NewGameRequest request);
     Mono<GameDetailsResponse> getGame(String gameId);
     Mono<PlayResultDTO> playMove(String gameId, PlayRequestDTO request);
+    Flux<GameSessionFrame> playSession(String gameId, Flux<PlayRequestDTO> moves);
+    Flux<BatchMoveResult> playBatch(Flux<BatchMoveRequest> requests);
     Mono<Void> deleteGame(String gameId);
 }
@@ -1,31 +1,79 @@
 package cat.itacademy.s05.t01.blackjack.service;
 
 import cat.itacademy.s05.t01.blackjack.dto.*;
+import cat.itacademy.s05.t01.blackjack.exception.InvalidMoveException;
 import cat.itacademy.s05.t01.blackjack.exception.NotFoundException;
+import cat.itacademy.s05.t01.blackjack.exception.ValidationException;
 import cat.itacademy.s05.t01.blackjack.model.mongo.Game;
 import cat.itacademy.s05.t01.blackjack.model.mongo.GameStatus;
+import cat.itacademy.s05.t01.blackjack.model.mongo.HandStatus;
 import cat.itacademy.s05.t01.blackjack.model.mongo.Move;
-import cat.itacademy.s05.t01.blackjack.model.mysql.Player;
+import cat.itacademy.s05.t01.blackjack.model.mongo.PlayerHand;
+import cat.itacademy.s05.t01.blackjack.model.mongo.Shoe;
 import cat.itacademy.s05.t01.blackjack.repository.mongo.GameReactiveRepository;
 import cat.itacademy.s05.t01.blackjack.repository.mysql.PlayerRepository;
 import cat.itacademy.s05.t01.blackjack.util.BlackjackRules;
-import cat.itacademy.s05.t01.blackjack.util.DeckFactory;
+import cat.itacademy.s05.t01.blackjack.util.Cards;
+import cat.itacademy.s05.t01.blackjack.util.HandState;
+import cat.itacademy.s05.t01.blackjack.util.SingleFlight;
+import org.reactivestreams.Publisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 @Service
 public class GameServiceImpl implements GameService {
 
+    // What a move left to persist: the active hand, every hand, or the finished game
+    private enum Change { HAND, HANDS, FINISHED }
+
+    private static final int MAX_MOVE_RETRIES = 3;
+    private static final int BATCH_GAMES = 100;
+    static final int MAX_HANDS = 4;
+
+    // Insurance costs half the base bet and pays 2 to 1
+    private static final double INSURANCE_STAKE = 0.5;
+    private static final double INSURANCE_PAYS = 1.0;
+
     private final PlayerRepository playerRepository;
     private final GameReactiveRepository gameRepository;
+    private final ShoePool shoePool;
+    private final Leaderboard leaderboard;
+    private final StrategyAdvisor strategyAdvisor;
+    private final GameStateCache gameCache;
+    private final GameMetrics gameMetrics;
+    private final PlayerIdCache playerIds;
+
+    // Concurrent reads of the same game share one query
+    private final SingleFlight<String, Game> gameReads = new SingleFlight<>();
 
     public GameServiceImpl(PlayerRepository playerRepository,
-                           GameReactiveRepository gameRepository) {
+                           GameReactiveRepository gameRepository,
+                           ShoePool shoePool,
+                           Leaderboard leaderboard,
+                           StrategyAdvisor strategyAdvisor,
+                           GameStateCache gameCache,
+                           GameMetrics gameMetrics,
+                           PlayerIdCache playerIds) {
         this.playerRepository = playerRepository;
         this.gameRepository = gameRepository;
+        this.shoePool = shoePool;
+        this.leaderboard = leaderboard;
+        this.strategyAdvisor = strategyAdvisor;
+        this.gameCache = gameCache;
+        this.gameMetrics = gameMetrics;
+        this.playerIds = playerIds;
     }
 
     @Override
@@ -34,185 +82,686 @@ public class GameServiceImpl implements GameService {
                 ? request.playerName().trim()
                 : "";
 
-        return findOrCreatePlayer(playerName)
-                .flatMap(player -> {
-                    List<String> deck = DeckFactory.createShuffledDeck();
-
-                    List<String> playerHand = new ArrayList<>();
-                    List<String> dealerHand = new ArrayList<>();
-                    dealInitialCards(deck, playerHand, dealerHand);
-
-                    Game game = Game.builder()
-                            .playerId(player.getId())
-                            .playerHand(playerHand)
-                            .dealerHand(dealerHand)
-                            .deck(deck)
-                            .status(GameStatus.IN_PROGRESS)
-                            .build();
-
-                    return gameRepository.save(game)
-                            .map(savedGame -> toNewGameResponse(savedGame, player));
-                });
+        return playerIds.idOf(playerName)
+                .flatMap(playerId -> shoePool.reserve()
+                        .flatMap(placement -> {
+                            Game game = Game.builder()
+                                    .playerId(playerId)
+                                    .shoeId(placement.shoe().getId())
+                                    .nextCardIndex(placement.firstCard())
+                                    .blockEnd(placement.endCard())
+                                    .status(GameStatus.IN_PROGRESS)
+                                    .build();
+                            dealInitialCards(game, placement.shoe());
+
+                            return gameRepository.save(game)
+                                    .map(savedGame -> toNewGameResponse(savedGame, playerName));
+                        }));
     }
 
     @Override
     public Mono<GameDetailsResponse> getGame(String gameId) {
-        return gameRepository.findById(gameId)
+        // Read only, so concurrent requests can share the game they load
+        Mono<Game> read = gameCache.isEnabled()
+                ? gameCache.get(gameId)
+                : gameReads.execute(gameId, () -> gameRepository.findById(gameId));
+
+        return read
                 .switchIfEmpty(Mono.error(new NotFoundException("Game not found")))
-                .map(game -> {
-                    int playerValue = BlackjackRules.calculateHandValue(game.getPlayerHand());
-                    int dealerValue = getVisibleDealerValue(game);
-
-                    return GameDetailsResponse.builder()
-                            .gameId(game.getId())
-                            .playerId(game.getPlayerId())
-                            .playerHand(game.getPlayerHand())
-                            .dealerHand(getVisibleDealerHand(game))
-                            .status(game.getStatus() != null ? game.getStatus().name() : null)
-                            .playerHandValue(playerValue)
-                            .dealerHandValue(dealerValue)
-                            .build();
+                .map(this::withHands)
+                .flatMap(game -> {
+                    // The advice reads the hands right away, under the same lock as the response
+                    synchronized (game) {
+                        GameDetailsResponse details = toGameDetails(game);
+                        return game.getStatus() == GameStatus.IN_PROGRESS
+                                ? strategyAdvisor.advise(game).map(move -> {
+                                    details.setSuggestedMove(move.name());
+                                    return details;
+                                })
+                                : Mono.just(details);
+                    }
                 });
     }
 
+    // Cached games are shared; reading under their lock never shows half of a move
+    private GameDetailsResponse toGameDetails(Game game) {
+        synchronized (game) {
+            PlayerHand hand = activeHand(game);
+            int dealerValue = getVisibleDealerState(game).total();
+
+            return GameDetailsResponse.builder()
+                    .gameId(game.getId())
+                    .playerId(game.getPlayerId())
+                    .playerHand(Cards.labels(hand.getCards()))
+                    .dealerHand(Cards.labels(getVisibleDealerHand(game)))
+                    .status(game.getStatus() != null ? game.getStatus().name() : null)
+                    .playerHandValue(hand.getTotal())
+                    .dealerHandValue(dealerValue)
+                    .hands(toHandResponses(game))
+                    .activeHand(game.getActiveHand())
+                    .insured(game.isInsured())
+                    .build();
+        }
+    }
+
     @Override
     public Mono<PlayResultDTO> playMove(String gameId, PlayRequestDTO request) {
         Move move = Move.from(request.move());
 
-        return gameRepository.findById(gameId)
+        // A concurrent move on the same game makes the conditional update fail;
+        // re-read the game and apply the move to its new state
+        return Mono.defer(() -> load(gameId))
                 .switchIfEmpty(Mono.error(new NotFoundException("Game not found")))
-                .flatMap(game -> {
+                .map(this::withHands)
+                .flatMap(game -> pinned(game, () -> shoeFor(game)
+                        .flatMap(shoe -> withCards(game, shoe))
+                        .flatMap(shoe -> save(game, play(game, shoe, move)))).singleOrEmpty())
+                .retryWhen(Retry.max(MAX_MOVE_RETRIES)
+                        .filter(OptimisticLockingFailureException.class::isInstance)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
 
-                    if (game.getStatus() != GameStatus.IN_PROGRESS) {
-                        return Mono.error(new IllegalStateException("Game is already finished"));
-                    }
+    @Override
+    public Flux<GameSessionFrame> playSession(String gameId, Flux<PlayRequestDTO> moves) {
+        return load(gameId)
+                .switchIfEmpty(Mono.error(new NotFoundException("Game not found")))
+                .map(this::withHands)
+                .flatMapMany(loaded -> shoeFor(loaded).flatMapMany(shoe -> {
+                    // The session's copy of the game, moves are applied to it without reading Mongo
+                    AtomicReference<Game> current = new AtomicReference<>(loaded);
+
+                    return Flux.just(GameSessionFrame.builder().state(toPlayResult(loaded)).build())
+                            .concatWith(moves.concatMap(request -> playOnSession(current, shoe, request)));
+                }));
+    }
+
+    private Flux<GameSessionFrame> playOnSession(AtomicReference<Game> current, Shoe shoe, PlayRequestDTO request) {
+        Game game = current.get();
+        return pinned(game, () -> withCards(game, shoe)
+                .flatMapMany(ready -> playOnSession(current, game, ready, request)));
+    }
+
+    private Flux<GameSessionFrame> playOnSession(AtomicReference<Game> current, Game game, Shoe shoe,
+                                                 PlayRequestDTO request) {
+        Played played;
+        try {
+            played = play(game, shoe, Move.from(request.move()));
+        } catch (ValidationException | InvalidMoveException | IllegalStateException ex) {
+            return Flux.just(GameSessionFrame.builder().error(ex.getMessage()).build());
+        }
+
+        // The new state is pushed before it is written; the next move waits for the write
+        Mono<GameSessionFrame> write = persist(game, played.hand(), played.change())
+                .doOnNext(saved -> {
+                    game.setVersion(saved.getVersion());
+                    game.setPlayerHand(null);
+                })
+                .then(Mono.<GameSessionFrame>empty())
+                .onErrorResume(OptimisticLockingFailureException.class, ex -> load(game.getId())
+                        .map(this::withHands)
+                        .doOnNext(current::set)
+                        .map(reloaded -> GameSessionFrame.builder()
+                                .state(toPlayResult(reloaded))
+                                .error("Game was modified by another request")
+                                .build()));
+
+        return Flux.concat(Mono.just(GameSessionFrame.builder().state(played.result()).build()), write);
+    }
+
+    @Override
+    public Flux<BatchMoveResult> playBatch(Flux<BatchMoveRequest> requests) {
+        return requests
+                .buffer(BATCH_GAMES)
+                .concatMap(this::playBatchGroup);
+    }
+
+    // Loads every game of the group at once, plays all their moves in memory
+    // and stores them with a single bulk write
+    private Flux<BatchMoveResult> playBatchGroup(List<BatchMoveRequest> requests) {
+        List<BatchMoveResult> rejected = new ArrayList<>();
+        Map<String, List<String>> movesByGame = new LinkedHashMap<>();
+
+        for (BatchMoveRequest request : requests) {
+            if (request.gameId() == null || request.gameId().isBlank()) {
+                rejected.add(gameError(request.gameId(), "Game id must be provided"));
+            } else if (request.moves() == null || request.moves().isEmpty()) {
+                rejected.add(gameError(request.gameId(), "Moves must be provided"));
+            } else {
+                // Moves sent twice for the same game are played in order
+                movesByGame.computeIfAbsent(request.gameId(), id -> new ArrayList<>()).addAll(request.moves());
+            }
+        }
+
+        if (movesByGame.isEmpty()) {
+            return Flux.fromIterable(rejected);
+        }
 
-                    return switch (move) {
-                        case HIT -> handleHit(game);
-                        case STAND -> handleStand(game);
-                    };
+        // Batches always read and write MongoDB directly: cached games are stored and
+        // dropped first, and dropped again after the group in case a move cached them
+        Mono<Void> released = gameCache.isEnabled()
+                ? gameCache.release(movesByGame.keySet())
+                : Mono.empty();
+
+        return released
+                .thenMany(gameRepository.findAllById(movesByGame.keySet()))
+                .map(this::withHands)
+                .concatMap(game -> shoeFor(game)
+                        .flatMap(shoe -> withCards(game, shoe))
+                        .map(shoe -> playAll(game, shoe, movesByGame.get(game.getId()))))
+                .collectList()
+                .flatMapMany(plays -> {
+                    Set<String> found = new HashSet<>();
+                    plays.forEach(play -> found.add(play.game().getId()));
+
+                    Flux<BatchMoveResult> missing = Flux.fromIterable(movesByGame.keySet())
+                            .filter(id -> !found.contains(id))
+                            .map(id -> gameError(id, "Game not found"));
+
+                    return Flux.fromIterable(rejected)
+                            .concatWith(storeBatch(plays))
+                            .concatWith(missing)
+                            .concatWith(released.then(Mono.<BatchMoveResult>empty()));
                 });
     }
 
+    private record BatchPlay(Game game, List<BatchMoveResult> results, boolean changed, boolean finished) {}
+
+    private BatchPlay playAll(Game game, Shoe shoe, List<String> moves) {
+        List<BatchMoveResult> results = new ArrayList<>(moves.size());
+        boolean changed = false;
+        boolean finished = false;
+
+        for (int i = 0; i < moves.size(); i++) {
+            String raw = moves.get(i);
+            try {
+                Played played = play(game, shoe, Move.from(raw));
+                finished = played.change() == Change.FINISHED;
+                changed = true;
+                results.add(BatchMoveResult.builder()
+                        .gameId(game.getId())
+                        .index(i)
+                        .move(raw)
+                        .result(played.result())
+                        .build());
+            } catch (ValidationException | InvalidMoveException | IllegalStateException ex) {
+                // The rest of the game's moves were meant to follow this one, so they are not played
+                results.add(BatchMoveResult.builder()
+                        .gameId(game.getId())
+                        .index(i)
+                        .move(raw)
+                        .error(ex.getMessage())
+                        .build());
+                break;
+            }
+        }
+
+        return new BatchPlay(game, results, changed, finished);
+    }
+
+    private Flux<BatchMoveResult> storeBatch(List<BatchPlay> plays) {
+        List<Game> changed = plays.stream()
+                .filter(BatchPlay::changed)
+                .map(BatchPlay::game)
+                .toList();
+
+        Mono<Set<String>> stored = changed.isEmpty()
+                ? Mono.just(Set.of())
+                : gameRepository.saveGames(changed);
+
+        return stored.flatMapMany(ids -> Flux.fromIterable(plays)
+                .concatMap(play -> {
+                    if (play.changed() && !ids.contains(play.game().getId())) {
+                        return Flux.just(gameError(play.game().getId(), "Game was modified by another request"));
+                    }
+
+                    Mono<Integer> stats = play.finished()
+                            ? updatePlayerStats(play.game())
+                            : Mono.empty();
+                    return stats.thenMany(Flux.fromIterable(play.results()));
+                }));
+    }
+
+    private static BatchMoveResult gameError(String gameId, String message) {
+        return BatchMoveResult.builder()
+                .gameId(gameId)
+                .error(message)
+                .build();
+    }
+
     @Override
     public Mono<Void> deleteGame(String gameId) {
         return gameRepository.findById(gameId)
                 .switchIfEmpty(Mono.error(new NotFoundException("Game not found")))
-                .flatMap(game -> gameRepository.deleteById(gameId));
-    }
-
-    private Mono<Player> findOrCreatePlayer(String playerName) {
-        return playerRepository.findByName(playerName)
-                .switchIfEmpty(
-                        Mono.defer(() ->
-                                playerRepository.save(
-                                        Player.builder()
-                                                .name(playerName)
-                                                .gamesPlayed(0)
-                                                .gamesWon(0)
-                                                .gamesLost(0)
-                                                .build()
-                                )
-                        )
-                );
-    }
-
-    private void dealInitialCards(List<String> deck,
-                                  List<String> playerHand,
-                                  List<String> dealerHand) {
-        playerHand.add(deck.remove(0));
-        dealerHand.add(deck.remove(0));
-        playerHand.add(deck.remove(0));
-        dealerHand.add(deck.remove(0));
-    }
-
-    private NewGameResponse toNewGameResponse(Game game, Player player) {
-        int playerValue = BlackjackRules.calculateHandValue(game.getPlayerHand());
-        int dealerValue = getVisibleDealerValue(game);
+                .flatMap(game -> gameRepository.deleteById(gameId))
+                .doOnSuccess(deleted -> gameCache.invalidate(gameId));
+    }
+
+    private Mono<Shoe> shoeFor(Game game) {
+        if (game.getShoeId() == null) {
+            // Games created before shoes are dealt from their own deck
+            return Mono.just(Shoe.builder()
+                    .decks(1)
+                    .cards(game.getDeck())
+                    .cutCard(game.getDeck().length)
+                    .build());
+        }
+
+        return shoePool.findShoe(game.getShoeId())
+                .switchIfEmpty(Mono.error(new IllegalStateException("Shoe not found for game")));
+    }
+
+    // Games stored before splits only have playerHand; their next write replaces it with hands
+    private Game withHands(Game game) {
+        if (game.getHands() == null && game.getPlayerHand() != null) {
+            List<PlayerHand> hands = new ArrayList<>();
+            hands.add(newHand(game.getPlayerHand(), BlackjackRules.evaluate(game.getPlayerHand())));
+            game.setHands(hands);
+            game.setActiveHand(0);
+        }
+        return game;
+    }
+
+    static PlayerHand newHand(byte[] cards, HandState state) {
+        return PlayerHand.builder()
+                .cards(cards)
+                .total(state.total())
+                .soft(state.isSoft())
+                .bet(1)
+                .status(HandStatus.PLAYING)
+                .build();
+    }
+
+    private void dealInitialCards(Game game, Shoe shoe) {
+        byte playerFirst = drawCard(game, shoe);
+        byte dealerFirst = drawCard(game, shoe);
+        byte playerSecond = drawCard(game, shoe);
+        byte dealerSecond = drawCard(game, shoe);
+
+        byte[] playerCards = {playerFirst, playerSecond};
+        List<PlayerHand> hands = new ArrayList<>();
+        hands.add(newHand(playerCards, BlackjackRules.evaluate(playerCards)));
+        game.setHands(hands);
+        game.setActiveHand(0);
+        game.setDealerHand(new byte[]{dealerFirst, dealerSecond});
+    }
+
+    // A game that dealt its whole block goes on with another block of its shoe
+    private static int cardsLeft(Game game, Shoe shoe) {
+        int end = game.getBlockEnd() > 0 ? game.getBlockEnd() : shoe.getCards().length;
+        return end - game.getNextCardIndex();
+    }
+
+    // Claiming a block is a Mongo write, so it happens before any move that could run
+    // out of cards; the rest of the old block is left unused
+    private Mono<Shoe> withCards(Game game, Shoe shoe) {
+        if (game.getBlockEnd() == 0 || cardsLeft(game, shoe) >= BlackjackRules.MAX_CARDS_PER_MOVE) {
+            return Mono.just(shoe);
+        }
+
+        return shoePool.extend(shoe)
+                .doOnNext(block -> {
+                    synchronized (game) {
+                        if (block.endCard() - block.firstCard() > cardsLeft(game, shoe)) {
+                            game.setNextCardIndex(block.firstCard());
+                            game.setBlockEnd(block.endCard());
+                        }
+                    }
+                })
+                .thenReturn(shoe);
+    }
+
+    private byte drawCard(Game game, Shoe shoe) {
+        if (cardsLeft(game, shoe) <= 0) {
+            throw new IllegalStateException("No cards left in the shoe");
+        }
+
+        int index = game.getNextCardIndex();
+        game.setNextCardIndex(index + 1);
+        return shoe.getCards()[index];
+    }
+
+    private NewGameResponse toNewGameResponse(Game game, String playerName) {
+        PlayerHand hand = activeHand(game);
+        int dealerValue = getVisibleDealerState(game).total();
 
         return NewGameResponse.builder()
                 .gameId(game.getId())
-                .playerName(player.getName())
-                .playerHand(game.getPlayerHand())
-                .dealerHand(getVisibleDealerHand(game))
-                .playerHandValue(playerValue)
+                .playerName(playerName)
+                .playerHand(Cards.labels(hand.getCards()))
+                .dealerHand(Cards.labels(getVisibleDealerHand(game)))
+                .playerHandValue(hand.getTotal())
                 .dealerHandValue(dealerValue)
                 .status(game.getStatus() != null ? game.getStatus().name() : null)
                 .build();
     }
 
-    private Mono<PlayResultDTO> handleHit(Game game) {
-        List<String> deck = game.getDeck();
-        List<String> playerHand = game.getPlayerHand();
+    private static PlayerHand activeHand(Game game) {
+        return game.getHands().get(game.getActiveHand());
+    }
+
+    // One transition from the stored total, instead of evaluating every card again
+    static HandState addCard(PlayerHand hand, byte card) {
+        HandState state = HandState.of(hand.getTotal(), hand.isSoft(), hand.getCards().length).add(card);
+        hand.setCards(Cards.append(hand.getCards(), card));
+        hand.setTotal(state.total());
+        hand.setSoft(state.isSoft());
+        return state;
+    }
+
+    // Applies a move to the game in memory; the caller persists what it changed
+    private Change apply(Game game, Shoe shoe, Move move) {
+        // A cached game is shared by every request that plays it
+        synchronized (game) {
+            if (game.getStatus() != GameStatus.IN_PROGRESS) {
+                throw new IllegalStateException("Game is already finished");
+            }
+
+            // A move that runs out of cards halfway fails and leaves the game as it was
+            Game before = cardsLeft(game, shoe) < BlackjackRules.MAX_CARDS_PER_MOVE ? GameStateCache.copy(game) : null;
+            try {
+                Change change = switch (move) {
+                    case HIT -> handleHit(game, shoe);
+                    case STAND -> handleStand(game, shoe);
+                    case DOUBLE -> handleDouble(game, shoe);
+                    case SPLIT -> handleSplit(game, shoe);
+                    case INSURANCE -> handleInsurance(game);
+                    case SURRENDER -> handleSurrender(game, shoe);
+                };
+                game.setMoves(game.getMoves() + 1);
+                return change;
+            } catch (RuntimeException ex) {
+                if (before != null) {
+                    restore(game, before);
+                }
+                throw ex;
+            }
+        }
+    }
+
+    private static void restore(Game game, Game before) {
+        game.setHands(before.getHands());
+        game.setActiveHand(before.getActiveHand());
+        game.setDealerHand(before.getDealerHand());
+        game.setInsured(before.isInsured());
+        game.setNextCardIndex(before.getNextCardIndex());
+        game.setBlockEnd(before.getBlockEnd());
+        game.setMoves(before.getMoves());
+        game.setStatus(before.getStatus());
+        game.setNetUnits(before.getNetUnits());
+    }
+
+    // What a move changed and the state it left, read under the game's lock
+    private record Played(int hand, Change change, PlayResultDTO result) {}
+
+    private Played play(Game game, Shoe shoe, Move move) {
+        synchronized (game) {
+            int hand = game.getActiveHand();
+            Change change = apply(game, shoe, move);
+            return new Played(hand, change, toPlayResult(game));
+        }
+    }
+
+    private Mono<PlayResultDTO> save(Game game, Played played) {
+        return persist(game, played.hand(), played.change()).thenReturn(played.result());
+    }
+
+    // A cached game is not evicted between a move on it and the write of that move
+    private <T> Flux<T> pinned(Game game, Supplier<? extends Publisher<T>> move) {
+        if (!gameCache.isEnabled()) {
+            return Flux.defer(move);
+        }
+
+        return Flux.usingWhen(
+                Mono.fromSupplier(() -> gameCache.pin(game)),
+                pinned -> Flux.defer(move),
+                pinned -> Mono.fromRunnable(() -> {
+                    if (pinned) {
+                        gameCache.unpin(game);
+                    }
+                }));
+    }
+
+    private Mono<Game> load(String gameId) {
+        return gameCache.isEnabled()
+                ? gameCache.get(gameId)
+                : gameRepository.findById(gameId);
+    }
+
+    private Mono<Game> persist(Game game, int hand, Change change) {
+        if (gameCache.isEnabled()) {
+            if (change != Change.FINISHED) {
+                return gameCache.markDirty(game);
+            }
+            return gameCache.complete(game)
+                    .flatMap(saved -> updatePlayerStats(saved).thenReturn(saved));
+        }
+
+        // Games stored before splits get their hands written in full the first time
+        if (change == Change.HAND && game.getPlayerHand() != null) {
+            change = Change.HANDS;
+        }
+
+        return switch (change) {
+            case HAND -> gameRepository.saveHand(game, hand);
+            case HANDS -> gameRepository.saveHands(game);
+            case FINISHED -> endGame(game);
+        };
+    }
+
+    private Change handleHit(Game game, Shoe shoe) {
+        PlayerHand hand = activeHand(game);
+        HandState state = addCard(hand, drawCard(game, shoe));
+
+        if (state.isBust()) {
+            hand.setStatus(HandStatus.BUST);
+        }
+        return afterMove(game, shoe);
+    }
+
+    private Change handleStand(Game game, Shoe shoe) {
+        activeHand(game).setStatus(HandStatus.STOOD);
+        return afterMove(game, shoe);
+    }
+
+    private Change handleDouble(Game game, Shoe shoe) {
+        PlayerHand hand = activeHand(game);
+        if (hand.getCards().length != 2) {
+            throw new InvalidMoveException("Can only double down on two cards");
+        }
+
+        // One card at twice the stake, then the hand is done
+        byte card = drawCard(game, shoe);
+        hand.setBet(hand.getBet() * 2);
+        HandState state = addCard(hand, card);
+        hand.setStatus(state.isBust() ? HandStatus.BUST : HandStatus.STOOD);
+        return afterMove(game, shoe);
+    }
+
+    private Change handleSplit(Game game, Shoe shoe) {
+        PlayerHand hand = activeHand(game);
+        if (!BlackjackRules.canSplit(hand.getCards())) {
+            throw new InvalidMoveException("Can only split two cards of the same value");
+        }
+        if (game.getHands().size() >= MAX_HANDS) {
+            throw new InvalidMoveException("Cannot split into more than " + MAX_HANDS + " hands");
+        }
+
+        byte first = hand.getCards()[0];
+        byte second = hand.getCards()[1];
+        boolean aces = Cards.rank(first) == 0;
+
+        // Both cards are drawn before the hands change
+        byte toFirst = drawCard(game, shoe);
+        byte toSecond = drawCard(game, shoe);
+
+        PlayerHand kept = newHand(new byte[]{first}, HandState.EMPTY.add(first));
+        PlayerHand split = newHand(new byte[]{second}, HandState.EMPTY.add(second));
+        kept.setBet(hand.getBet());
+        split.setBet(hand.getBet());
+        addCard(kept, toFirst);
+        addCard(split, toSecond);
+        // Split aces get one card each
+        if (aces) {
+            kept.setStatus(HandStatus.STOOD);
+            split.setStatus(HandStatus.STOOD);
+        }
+        game.getHands().set(game.getActiveHand(), kept);
+        game.getHands().add(game.getActiveHand() + 1, split);
+
+        Change change = afterMove(game, shoe);
+        return change == Change.HAND ? Change.HANDS : change;
+    }
+
+    private Change handleInsurance(Game game) {
+        PlayerHand hand = activeHand(game);
+        if (Cards.rank(game.getDealerHand()[0]) != 0) {
+            throw new InvalidMoveException("Insurance is only offered against a dealer ace");
+        }
+        if (game.isInsured() || game.getHands().size() > 1 || hand.getCards().length != 2) {
+            throw new InvalidMoveException("Insurance can only be taken before any other move");
+        }
+
+        game.setInsured(true);
+        return Change.HANDS;
+    }
+
+    private Change handleSurrender(Game game, Shoe shoe) {
+        PlayerHand hand = activeHand(game);
+        if (game.getHands().size() > 1 || hand.getCards().length != 2) {
+            throw new InvalidMoveException("Surrender is only allowed as the first move");
+        }
 
-        String card = deck.remove(0);
-        playerHand.add(card);
+        hand.setStatus(HandStatus.SURRENDERED);
+        return afterMove(game, shoe);
+    }
 
-        int playerValue = BlackjackRules.calculateHandValue(playerHand);
+    // Moves on to the next hand still being played, or settles the game once there is none
+    private Change afterMove(Game game, Shoe shoe) {
+        List<PlayerHand> hands = game.getHands();
+        int active = game.getActiveHand();
+        while (active < hands.size() && hands.get(active).getStatus() != HandStatus.PLAYING) {
+            active++;
+        }
 
-        if (playerValue > 21) {
-            game.setStatus(GameStatus.PLAYER_BUST);
-            return endGame(game);
+        if (active == hands.size()) {
+            game.setActiveHand(hands.size() - 1);
+            settle(game, shoe);
+            return Change.FINISHED;
         }
 
-        return gameRepository.save(game)
-                .map(this::toPlayResult);
+        game.setActiveHand(active);
+        return Change.HAND;
     }
 
-    private Mono<PlayResultDTO> handleStand(Game game) {
-        List<String> deck = game.getDeck();
-        List<String> dealerHand = game.getDealerHand();
+    private void settle(Game game, Shoe shoe) {
+        boolean dealerBlackjack = BlackjackRules.evaluate(game.getDealerHand()).isBlackjack();
+        boolean dealerPlays = game.getHands().stream().anyMatch(hand -> hand.getStatus() == HandStatus.STOOD);
 
-        while (BlackjackRules.calculateHandValue(dealerHand) < 17 && !deck.isEmpty()) {
-            dealerHand.add(deck.remove(0));
+        HandState dealerState = BlackjackRules.evaluate(game.getDealerHand());
+        // Never settles against a dealer who still has to draw: running out of cards fails the move
+        while (dealerPlays && BlackjackRules.dealerMustHit(dealerState)) {
+            byte card = drawCard(game, shoe);
+            game.setDealerHand(Cards.append(game.getDealerHand(), card));
+            dealerState = dealerState.add(card);
         }
 
-        int dealerValue = BlackjackRules.calculateHandValue(dealerHand);
-        int playerValue = BlackjackRules.calculateHandValue(game.getPlayerHand());
+        double net = game.isInsured() ? (dealerBlackjack ? INSURANCE_PAYS : -INSURANCE_STAKE) : 0;
+        for (PlayerHand hand : game.getHands()) {
+            GameStatus result = handResult(hand, dealerState);
+            hand.setResult(result);
+            net += switch (result) {
+                case PLAYER_WIN -> hand.getBet();
+                case PLAYER_LOSE, PLAYER_BUST -> -hand.getBet();
+                case PLAYER_SURRENDER -> -hand.getBet() / 2.0;
+                case TIE, DEALER_BUST, IN_PROGRESS -> 0;
+            };
+        }
 
-        if (dealerValue > 21) {
-            game.setStatus(GameStatus.PLAYER_WIN);
-        } else if (dealerValue > playerValue) {
-            game.setStatus(GameStatus.PLAYER_LOSE);
-        } else if (dealerValue < playerValue) {
-            game.setStatus(GameStatus.PLAYER_WIN);
+        game.setNetUnits(net);
+        if (game.getHands().size() == 1) {
+            game.setStatus(game.getHands().get(0).getResult());
         } else {
-            game.setStatus(GameStatus.TIE);
+            game.setStatus(net > 0 ? GameStatus.PLAYER_WIN : net < 0 ? GameStatus.PLAYER_LOSE : GameStatus.TIE);
         }
+    }
 
-        return endGame(game);
+    // Also settles the seats of a table, see TableServiceImpl
+    static GameStatus handResult(PlayerHand hand, HandState dealerState) {
+        int dealerValue = dealerState.total();
+        int playerValue = hand.getTotal();
+
+        return switch (hand.getStatus()) {
+            case BUST -> GameStatus.PLAYER_BUST;
+            case SURRENDERED -> GameStatus.PLAYER_SURRENDER;
+            case PLAYING, STOOD -> {
+                if (dealerValue > 21) {
+                    yield GameStatus.PLAYER_WIN;
+                } else if (dealerValue > playerValue) {
+                    yield GameStatus.PLAYER_LOSE;
+                } else if (dealerValue < playerValue) {
+                    yield GameStatus.PLAYER_WIN;
+                } else {
+                    yield GameStatus.TIE;
+                }
+            }
+        };
     }
 
-    private Mono<PlayResultDTO> endGame(Game game) {
-        return playerRepository.findById(game.getPlayerId())
-                .flatMap(player -> {
-                    player.setGamesPlayed(player.getGamesPlayed() + 1);
+    private Mono<Game> endGame(Game game) {
+        // Only the request that actually finishes the game updates the stats
+        return gameRepository.finishGame(game)
+                .flatMap(saved -> updatePlayerStats(saved).thenReturn(saved));
+    }
 
-                    switch (game.getStatus()) {
-                        case PLAYER_WIN -> player.setGamesWon(player.getGamesWon() + 1);
-                        case PLAYER_LOSE, PLAYER_BUST -> player.setGamesLost(player.getGamesLost() + 1);
-                        case TIE, DEALER_BUST, IN_PROGRESS -> {}
-                    }
+    private Mono<Integer> updatePlayerStats(Game game) {
+        gameMetrics.gameFinished(game);
 
-                    return playerRepository.save(player);
-                })
-                .flatMap(p -> gameRepository.save(game))
-                .map(this::toPlayResult);
+        GameStatus status = game.getStatus();
+        int won = status == GameStatus.PLAYER_WIN ? 1 : 0;
+        int lost = status == GameStatus.PLAYER_LOSE
+                || status == GameStatus.PLAYER_BUST
+                || status == GameStatus.PLAYER_SURRENDER ? 1 : 0;
+
+        return playerRepository.recordResult(game.getPlayerId(), won, lost)
+                .doOnNext(updated -> {
+                    if (updated > 0) {
+                        leaderboard.recordResult(game.getPlayerId(), won, lost);
+                    }
+                });
     }
 
-    private PlayResultDTO toPlayResult(Game game) {
-        int playerValue = BlackjackRules.calculateHandValue(game.getPlayerHand());
-        int dealerValue = getVisibleDealerValue(game);
+    // Package-private for the mapping benchmark in src/jmh
+    PlayResultDTO toPlayResult(Game game) {
+        synchronized (game) {
+            PlayerHand hand = activeHand(game);
+
+            return PlayResultDTO.builder()
+                    .gameId(game.getId())
+                    .status(game.getStatus() != null ? game.getStatus().name() : null)
+                    .playerHand(Cards.labels(hand.getCards()))
+                    .dealerHand(Cards.labels(getVisibleDealerHand(game)))
+                    .playerValue(hand.getTotal())
+                    .dealerValue(getVisibleDealerState(game).total())
+                    .hands(toHandResponses(game))
+                    .activeHand(game.getActiveHand())
+                    .netUnits(game.getNetUnits())
+                    .message(toHumanMessage(game.getStatus()))
+                    .build();
+        }
+    }
 
-        return PlayResultDTO.builder()
-                .gameId(game.getId())
-                .status(game.getStatus() != null ? game.getStatus().name() : null)
-                .playerHand(game.getPlayerHand())
-                .dealerHand(getVisibleDealerHand(game))
-                .playerValue(playerValue)
-                .dealerValue(dealerValue)
-                .message(toHumanMessage(game.getStatus()))
-                .build();
+    private static List<HandResponse> toHandResponses(Game game) {
+        List<HandResponse> responses = new ArrayList<>(game.getHands().size());
+        for (PlayerHand hand : game.getHands()) {
+            responses.add(HandResponse.builder()
+                    .cards(Cards.labels(hand.getCards()))
+                    .value(hand.getTotal())
+                    .bet(hand.getBet())
+                    .status(hand.getStatus() != null ? hand.getStatus().name() : null)
+                    .result(hand.getResult() != null ? hand.getResult().name() : null)
+                    .build());
+        }
+        return responses;
     }
 
     private String toHumanMessage(GameStatus status) {
@@ -223,25 +772,25 @@ public class GameServiceImpl implements GameService {
             case TIE -> "It's a tie!";
             case IN_PROGRESS -> "Game in progress";
             case DEALER_BUST -> "Dealer busts!";
+            case PLAYER_SURRENDER -> "Player surrenders!";
         };
     }
 
-    private List<String> getVisibleDealerHand(Game game) {
-        List<String> dealerHand = game.getDealerHand();
-        if (dealerHand == null || dealerHand.isEmpty()) {
-            return List.of();
+    private byte[] getVisibleDealerHand(Game game) {
+        byte[] dealerHand = game.getDealerHand();
+        if (dealerHand == null || dealerHand.length == 0) {
+            return new byte[0];
         }
 
-        if (game.getStatus() == GameStatus.IN_PROGRESS && dealerHand.size() > 1) {
-            return List.of(dealerHand.get(0));
+        if (game.getStatus() == GameStatus.IN_PROGRESS && dealerHand.length > 1) {
+            return new byte[]{dealerHand[0]};
         }
 
         return dealerHand;
     }
 
-    private int getVisibleDealerValue(Game game) {
-        List<String> visibleDealerHand = getVisibleDealerHand(game);
-        return BlackjackRules.calculateHandValue(visibleDealerHand);
+    private HandState getVisibleDealerState(Game game) {
+        return BlackjackRules.evaluate(getVisibleDealerHand(game));
     }
 
 }
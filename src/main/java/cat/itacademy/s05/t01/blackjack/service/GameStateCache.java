@@ -0,0 +1,392 @@
+package cat.itacademy.s05.t01.blackjack.service;
+
+import cat.itacademy.s05.t01.blackjack.config.GameCacheProperties;
+import cat.itacademy.s05.t01.blackjack.model.mongo.Game;
+import cat.itacademy.s05.t01.blackjack.model.mongo.GameStatus;
+import cat.itacademy.s05.t01.blackjack.model.mongo.PlayerHand;
+import cat.itacademy.s05.t01.blackjack.repository.mongo.GameReactiveRepository;
+import cat.itacademy.s05.t01.blackjack.util.SingleFlight;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Games being played, kept in memory so moves neither read nor write MongoDB.
+ * Moves only mark their game dirty; every {@code flushInterval} the dirty
+ * games are written together with one bulk write, and a game that finishes is
+ * written right away, before its result is counted.
+ * <p>
+ * Durability: a move is acknowledged before it is stored, so up to one flush
+ * interval of moves is lost if the process dies. A graceful shutdown flushes
+ * everything first. The writes keep the version check, so if another instance
+ * changed a cached game its unstored moves are dropped, and the game is read
+ * again from MongoDB on its next move.
+ */
+@Slf4j
+@Component
+public class GameStateCache {
+
+    public record Stats(long hits, long misses, long flushes, long flushedGames,
+                        long conflicts, long flushNanos, int size) {
+
+        public double hitRatio() {
+            long requests = hits + misses;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+    }
+
+    private static final Duration SHUTDOWN_FLUSH_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration WRITE_WAIT = Duration.ofMillis(5);
+
+    private static final class Entry {
+        final Game game;
+        volatile long lastAccess;
+        // Moves applied in memory, and how many of them are stored
+        long changes;
+        long storedChanges;
+        boolean writing;
+        // Moves being applied; a pinned game is never evicted
+        int pins;
+
+        Entry(Game game) {
+            this.game = game;
+            this.lastAccess = System.nanoTime();
+        }
+    }
+
+    private record Snapshot(Entry entry, Game game, long changes) {}
+
+    private final GameReactiveRepository gameRepository;
+    private final GameCacheProperties properties;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final SingleFlight<String, Game> reads = new SingleFlight<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedGames = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong flushNanos = new AtomicLong();
+
+    private volatile Disposable flushing;
+
+    public GameStateCache(GameReactiveRepository gameRepository, GameCacheProperties properties) {
+        this.gameRepository = gameRepository;
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+
+        flushing = Flux.interval(properties.flushInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> flush()
+                        .onErrorResume(ex -> {
+                            log.warn("Could not flush cached games", ex);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flushing != null) {
+            flushing.dispose();
+        }
+        if (!entries.isEmpty()) {
+            flush().block(SHUTDOWN_FLUSH_TIMEOUT);
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    /** The game being played, read from MongoDB only the first time. Finished games are not kept. */
+    public Mono<Game> get(String gameId) {
+        return Mono.defer(() -> {
+            Entry entry = entries.get(gameId);
+            if (entry != null) {
+                hits.incrementAndGet();
+                entry.lastAccess = System.nanoTime();
+                return Mono.just(entry.game);
+            }
+
+            misses.incrementAndGet();
+            return reads.execute(gameId, () -> gameRepository.findById(gameId))
+                    .map(game -> {
+                        if (game.getStatus() != GameStatus.IN_PROGRESS) {
+                            return game;
+                        }
+                        // Two first reads of the same game share whichever was cached first
+                        Entry cached = entries.computeIfAbsent(gameId, id -> new Entry(game));
+                        evictOverflow();
+                        return cached.game;
+                    });
+        });
+    }
+
+    /**
+     * Keeps a cached game from being evicted while a move is applied to it and
+     * stored, until {@link #unpin}. False if the game is no longer cached.
+     */
+    public boolean pin(Game game) {
+        return withEntry(game, entry -> entry.pins++);
+    }
+
+    public void unpin(Game game) {
+        withEntry(game, entry -> entry.pins = Math.max(0, entry.pins - 1));
+    }
+
+    /**
+     * Counts a move applied to a cached game, to be written by the next flush. A
+     * game dropped since it was read, after a conflicting flush or a delete, is
+     * written right away instead, and fails with an
+     * {@link OptimisticLockingFailureException} if it was changed elsewhere.
+     */
+    public Mono<Game> markDirty(Game game) {
+        if (withEntry(game, entry -> entry.changes++)) {
+            return Mono.just(game);
+        }
+
+        Game snapshot;
+        synchronized (game) {
+            snapshot = copy(game);
+        }
+        return gameRepository.saveGames(List.of(snapshot))
+                .flatMap(stored -> {
+                    if (!stored.contains(game.getId())) {
+                        return Mono.error(new OptimisticLockingFailureException(
+                                "Game " + game.getId() + " was modified by another request"));
+                    }
+                    synchronized (game) {
+                        game.setVersion(nextVersion(snapshot));
+                        game.setPlayerHand(null);
+                    }
+                    return Mono.just(game);
+                });
+    }
+
+    /**
+     * Writes a game that was just finished and drops it from the cache, once any
+     * flush of it in flight has landed. Fails with an
+     * {@link OptimisticLockingFailureException} if it was changed elsewhere.
+     */
+    public Mono<Game> complete(Game game) {
+        Entry entry = entries.get(game.getId());
+        if (entry == null) {
+            return gameRepository.finishGame(game);
+        }
+
+        return Mono.fromSupplier(() -> snapshot(entry, true))
+                .repeatWhenEmpty(attempts -> attempts.delayElements(WRITE_WAIT))
+                .flatMap(snapshot -> write(List.of(snapshot)))
+                .flatMap(stored -> {
+                    entries.remove(game.getId(), entry);
+                    return stored.contains(game.getId())
+                            ? Mono.just(entry.game)
+                            : Mono.error(new OptimisticLockingFailureException(
+                                    "Game " + game.getId() + " was modified by another request"));
+                });
+    }
+
+    /**
+     * Stores the unstored moves of the given games and drops them, so they can be
+     * read and written straight from MongoDB. A game that got a move during the
+     * write stays cached with it.
+     */
+    public Mono<Void> release(Collection<String> gameIds) {
+        return Mono.defer(() -> {
+            List<Entry> dirty = new ArrayList<>();
+            for (String gameId : gameIds) {
+                Entry entry = entries.get(gameId);
+                if (entry != null && isClean(entry)) {
+                    removeIfClean(entry);
+                } else if (entry != null) {
+                    dirty.add(entry);
+                }
+            }
+            if (dirty.isEmpty()) {
+                return Mono.empty();
+            }
+
+            return Flux.fromIterable(dirty)
+                    .concatMap(entry -> Mono.fromSupplier(() -> snapshot(entry, true))
+                            .repeatWhenEmpty(attempts -> attempts.delayElements(WRITE_WAIT)))
+                    .collectList()
+                    .flatMap(this::write)
+                    .doOnNext(stored -> dirty.forEach(this::removeIfClean))
+                    .then();
+        });
+    }
+
+    /** Drops a deleted game; its unstored moves are discarded. */
+    public void invalidate(String gameId) {
+        entries.remove(gameId);
+    }
+
+    /** Writes every dirty game in one bulk write and drops idle games. */
+    public Mono<Void> flush() {
+        return Mono.defer(() -> {
+            long idleBefore = System.nanoTime() - properties.idleTimeout().toNanos();
+            List<Snapshot> snapshots = new ArrayList<>();
+
+            for (Entry entry : entries.values()) {
+                Snapshot snapshot = snapshot(entry, false);
+                if (snapshot != null) {
+                    snapshots.add(snapshot);
+                } else if (entry.lastAccess < idleBefore) {
+                    removeIfClean(entry);
+                }
+            }
+
+            return snapshots.isEmpty() ? Mono.empty() : write(snapshots).then();
+        });
+    }
+
+    public Stats stats() {
+        return new Stats(hits.get(), misses.get(), flushes.get(), flushedGames.get(),
+                conflicts.get(), flushNanos.get(), entries.size());
+    }
+
+    // Copies a dirty game for writing, so moves can go on while the write is in flight
+    private Snapshot snapshot(Entry entry, boolean force) {
+        synchronized (entry) {
+            if (entry.writing || (!force && entry.changes == entry.storedChanges)) {
+                return null;
+            }
+            entry.writing = true;
+            return new Snapshot(entry, copy(entry.game), entry.changes);
+        }
+    }
+
+    private Mono<Set<String>> write(List<Snapshot> snapshots) {
+        long start = System.nanoTime();
+        List<Game> games = snapshots.stream().map(Snapshot::game).toList();
+
+        return gameRepository.saveGames(games)
+                .doOnNext(stored -> {
+                    flushes.incrementAndGet();
+                    flushedGames.addAndGet(stored.size());
+                    flushNanos.addAndGet(System.nanoTime() - start);
+
+                    for (Snapshot snapshot : snapshots) {
+                        Entry entry = snapshot.entry();
+                        synchronized (entry) {
+                            entry.writing = false;
+                            if (stored.contains(entry.game.getId())) {
+                                entry.game.setVersion(nextVersion(snapshot.game()));
+                                entry.game.setPlayerHand(null);
+                                entry.storedChanges = snapshot.changes();
+                            } else {
+                                conflicts.incrementAndGet();
+                                entries.remove(entry.game.getId(), entry);
+                                log.warn("Game {} was changed elsewhere, dropped {} unstored moves",
+                                        entry.game.getId(), entry.changes - entry.storedChanges);
+                            }
+                        }
+                    }
+                })
+                .doOnError(ex -> snapshots.forEach(snapshot -> {
+                    synchronized (snapshot.entry()) {
+                        snapshot.entry().writing = false;
+                    }
+                }));
+    }
+
+    // Runs atomically with pins and removals of the same game
+    private boolean withEntry(Game game, Consumer<Entry> action) {
+        boolean[] found = new boolean[1];
+        entries.computeIfPresent(game.getId(), (id, entry) -> {
+            if (entry.game == game) {
+                synchronized (entry) {
+                    action.accept(entry);
+                }
+                found[0] = true;
+            }
+            return entry;
+        });
+        return found[0];
+    }
+
+    private boolean isClean(Entry entry) {
+        synchronized (entry) {
+            return !entry.writing && entry.pins == 0 && entry.changes == entry.storedChanges;
+        }
+    }
+
+    private void removeIfClean(Entry entry) {
+        entries.computeIfPresent(entry.game.getId(),
+                (id, current) -> current == entry && isClean(current) ? null : current);
+    }
+
+    // Past maxSize the least recently used games with nothing left to store, and no
+    // move being applied, are dropped
+    private void evictOverflow() {
+        int excess = entries.size() - properties.maxSize();
+        if (excess <= 0) {
+            return;
+        }
+
+        entries.values().stream()
+                .filter(this::isClean)
+                .sorted(Comparator.comparingLong(entry -> entry.lastAccess))
+                .limit(excess)
+                .forEach(this::removeIfClean);
+    }
+
+    private static long nextVersion(Game game) {
+        return game.getVersion() == null ? 1 : game.getVersion() + 1;
+    }
+
+    static Game copy(Game game) {
+        List<PlayerHand> hands = new ArrayList<>(game.getHands().size());
+        for (PlayerHand hand : game.getHands()) {
+            hands.add(PlayerHand.builder()
+                    .cards(hand.getCards())
+                    .total(hand.getTotal())
+                    .soft(hand.isSoft())
+                    .bet(hand.getBet())
+                    .status(hand.getStatus())
+                    .result(hand.getResult())
+                    .build());
+        }
+
+        return Game.builder()
+                .id(game.getId())
+                .playerId(game.getPlayerId())
+                .hands(hands)
+                .activeHand(game.getActiveHand())
+                .dealerHand(game.getDealerHand())
+                .insured(game.isInsured())
+                .shoeId(game.getShoeId())
+                .nextCardIndex(game.getNextCardIndex())
+                .blockEnd(game.getBlockEnd())
+                .deck(game.getDeck())
+                .moves(game.getMoves())
+                .status(game.getStatus())
+                .netUnits(game.getNetUnits())
+                .version(game.getVersion())
+                .build();
+    }
+}
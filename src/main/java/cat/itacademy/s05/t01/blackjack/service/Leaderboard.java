@@ -0,0 +1,277 @@
+package cat.itacademy.s05.t01.blackjack.service;
+
+import cat.itacademy.s05.t01.blackjack.config.LeaderboardProperties;
+import cat.itacademy.s05.t01.blackjack.dto.RankingEvent;
+import cat.itacademy.s05.t01.blackjack.model.mysql.Player;
+import cat.itacademy.s05.t01.blackjack.repository.mysql.PlayerRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * The player ranking kept sorted in memory. It is loaded from MySQL at
+ * startup in ranking pages, updated in place as games finish and players are
+ * renamed, and every {@code reconcileInterval} re-reads only the players
+ * changed since the last sync to pick up anything it missed. Reads are only
+ * served while the last sync is younger than {@code maxStaleness}; callers
+ * fall back to MySQL otherwise.
+ * <p>
+ * Every change is also published once to {@link #changes()}, shared by all
+ * viewers of the live ranking. Ranks are only computed while someone watches.
+ */
+@Slf4j
+@Component
+public class Leaderboard {
+
+    public static final Comparator<Player> RANKING_ORDER = Comparator
+            .comparingInt(Player::getGamesWon).reversed()
+            .thenComparing(Player::getWinRate, Comparator.reverseOrder())
+            .thenComparing(Player::getId);
+
+    static final int PAGE_SIZE = 10_000;
+
+    // Covers writes that committed a little after the time they were stamped with
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(5);
+
+    private record Board(NavigableSet<Player> ranking, Map<Long, Player> players, long loadedAt,
+                         LocalDateTime syncedTo) {}
+
+    private final PlayerRepository playerRepository;
+    private final LeaderboardProperties properties;
+
+    private final AtomicReference<Board> board = new AtomicReference<>();
+    private final Sinks.Many<RankingEvent> changes = Sinks.many().multicast().directBestEffort();
+    private volatile Disposable reconciliation;
+
+    public Leaderboard(PlayerRepository playerRepository, LeaderboardProperties properties) {
+        this.playerRepository = playerRepository;
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+
+        reconciliation = Flux.interval(properties.reconcileInterval())
+                .startWith(0L)
+                .concatMap(tick -> reload()
+                        .onErrorResume(ex -> {
+                            log.warn("Could not reload the leaderboard", ex);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (reconciliation != null) {
+            reconciliation.dispose();
+        }
+    }
+
+    public Mono<Void> reload() {
+        Board current = board.get();
+        return current == null ? load() : reconcile(current);
+    }
+
+    // Walks the ranking index page by page and only swaps the board in once complete
+    private Mono<Void> load() {
+        return playerRepository.currentTime()
+                .flatMap(mark -> {
+                    Board loading = new Board(new ConcurrentSkipListSet<>(RANKING_ORDER), new ConcurrentHashMap<>(),
+                            0, mark);
+                    return playerRepository.findRanking(PAGE_SIZE)
+                            .collectList()
+                            .expand(page -> page.size() < PAGE_SIZE
+                                    ? Mono.empty()
+                                    : nextPage(page.get(page.size() - 1)))
+                            // A player that moved between pages may show up twice or not at all;
+                            // the next reconcile reads everything changed since the mark
+                            .doOnNext(page -> page.forEach(player -> put(loading, player)))
+                            .then(Mono.fromRunnable(() -> board.set(new Board(loading.ranking(), loading.players(),
+                                    System.nanoTime(), mark))));
+                });
+    }
+
+    private Mono<List<Player>> nextPage(Player last) {
+        return playerRepository.findRankingAfter(last.getGamesWon(), last.getWinRate(), last.getId(), PAGE_SIZE)
+                .collectList();
+    }
+
+    private Mono<Void> reconcile(Board current) {
+        return playerRepository.currentTime()
+                .flatMap(mark -> playerRepository.findUpdatedSince(current.syncedTo().minus(SYNC_OVERLAP))
+                        .doOnNext(player -> put(current, player))
+                        .then(Mono.fromRunnable(() -> board.set(
+                                new Board(current.ranking(), current.players(), System.nanoTime(), mark)))));
+    }
+
+    // MySQL is the source of truth: its row replaces whatever the board holds
+    private void put(Board current, Player player) {
+        current.players().compute(player.getId(), (id, old) -> {
+            if (old != null) {
+                current.ranking().remove(old);
+            }
+            Player entry = copy(player);
+            current.ranking().add(entry);
+            return entry;
+        });
+    }
+
+    public boolean isFresh() {
+        Board current = board.get();
+        return properties.enabled()
+                && current != null
+                && System.nanoTime() - current.loadedAt() <= properties.maxStaleness().toNanos();
+    }
+
+    public List<Player> top(int limit) {
+        return board.get().ranking().stream()
+                .limit(limit)
+                .toList();
+    }
+
+    public List<Player> after(int gamesWon, double winRate, long id, int limit) {
+        Player key = Player.builder().id(id).gamesWon(gamesWon).winRate(winRate).build();
+        return board.get().ranking().tailSet(key, false).stream()
+                .limit(limit)
+                .toList();
+    }
+
+    /** The current name of a player, when the ranking is fresh enough to tell. */
+    public Optional<String> nameOf(Long playerId) {
+        if (!isFresh()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(board.get().players().get(playerId)).map(Player::getName);
+    }
+
+    /**
+     * Ranking changes as they happen. A viewer that cannot keep up only gets
+     * the latest change once it asks for more, so one slow dashboard never
+     * holds back the others.
+     */
+    public Flux<RankingEvent> changes() {
+        return changes.asFlux().onBackpressureLatest();
+    }
+
+    public void add(Player player) {
+        Board current = board.get();
+        if (current == null) {
+            return;
+        }
+
+        boolean watched = watched();
+        RankingEvent[] event = new RankingEvent[1];
+        current.players().computeIfAbsent(player.getId(), id -> {
+            Player entry = copy(player);
+            current.ranking().add(entry);
+            if (watched) {
+                event[0] = toEvent(entry, null, rankOf(current, entry));
+            }
+            return entry;
+        });
+        publish(event[0]);
+    }
+
+    public void rename(Long playerId, String name) {
+        update(playerId, entry -> entry.setName(name));
+    }
+
+    public void recordResult(Long playerId, int won, int lost) {
+        update(playerId, entry -> {
+            entry.setGamesPlayed(entry.getGamesPlayed() + 1);
+            entry.setGamesWon(entry.getGamesWon() + won);
+            entry.setGamesLost(entry.getGamesLost() + lost);
+            entry.setWinRate(entry.getGamesWon() * 1.0 / entry.getGamesPlayed());
+        });
+    }
+
+    // Entries are never mutated in place: the sorted set would lose track of them
+    private void update(Long playerId, Consumer<Player> change) {
+        Board current = board.get();
+        if (current == null) {
+            return;
+        }
+
+        boolean watched = watched();
+        RankingEvent[] event = new RankingEvent[1];
+        current.players().computeIfPresent(playerId, (id, old) -> {
+            Player next = copy(old);
+            change.accept(next);
+            Integer previousRank = watched ? rankOf(current, old) : null;
+            current.ranking().remove(old);
+            current.ranking().add(next);
+            if (watched) {
+                event[0] = toEvent(next, previousRank, rankOf(current, next));
+            }
+            return next;
+        });
+        publish(event[0]);
+    }
+
+    // Ranks are only worked out for someone to see them: nobody else reads them
+    private boolean watched() {
+        return changes.currentSubscriberCount() > 0;
+    }
+
+    // Walks the players ahead, so it costs O(rank): cheap for the top of the table
+    private static int rankOf(Board board, Player entry) {
+        return board.ranking().headSet(entry, false).size() + 1;
+    }
+
+    // Different players finish games on different threads at the same time. Emitting is
+    // a handful of non-blocking onNext calls, so threads take turns instead of spinning
+    // on FAIL_NON_SERIALIZED; with nobody watching the event is simply dropped.
+    private void publish(RankingEvent event) {
+        if (event != null) {
+            synchronized (changes) {
+                changes.tryEmitNext(event);
+            }
+        }
+    }
+
+    private static RankingEvent toEvent(Player entry, Integer previousRank, int rank) {
+        return RankingEvent.builder()
+                .playerId(entry.getId())
+                .name(entry.getName())
+                .previousRank(previousRank)
+                .rank(rank)
+                .gamesPlayed(entry.getGamesPlayed())
+                .gamesWon(entry.getGamesWon())
+                .gamesLost(entry.getGamesLost())
+                .winRate(entry.getWinRate())
+                .build();
+    }
+
+    private static Player copy(Player player) {
+        return Player.builder()
+                .id(player.getId())
+                .name(player.getName())
+                .gamesPlayed(player.getGamesPlayed())
+                .gamesWon(player.getGamesWon())
+                .gamesLost(player.getGamesLost())
+                .winRate(player.getWinRate())
+                .build();
+    }
+}
@@ -0,0 +1,67 @@
+package cat.itacademy.s05.t01.blackjack.service;
+
+import cat.itacademy.s05.t01.blackjack.model.mysql.Player;
+import cat.itacademy.s05.t01.blackjack.repository.mysql.PlayerRepository;
+import cat.itacademy.s05.t01.blackjack.util.SingleFlight;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Player ids by name, for new games and table seats. A name not seen yet is resolved
+ * with one upsert that creates the player if needed; after that, returning players
+ * skip the database while the {@link Leaderboard} confirms the name still belongs
+ * to the cached id. Renames forget the old name at once on the instance that made
+ * them; the others see it once their leaderboard is reloaded.
+ */
+@Component
+public class PlayerIdCache {
+
+    private static final int MAX_NAMES = 10_000;
+
+    private final PlayerRepository playerRepository;
+    private final Leaderboard leaderboard;
+
+    private final Map<String, Long> ids;
+    private final SingleFlight<String, Long> lookups = new SingleFlight<>();
+
+    public PlayerIdCache(PlayerRepository playerRepository, Leaderboard leaderboard) {
+        this.playerRepository = playerRepository;
+        this.leaderboard = leaderboard;
+        this.ids = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > MAX_NAMES;
+            }
+        });
+    }
+
+    public Mono<Long> idOf(String name) {
+        // A rename on another instance is not forgotten here: the cached id is only
+        // used while the ranking, reloaded from MySQL, still gives that player this name
+        Long cached = ids.get(name);
+        if (cached != null && leaderboard.nameOf(cached).filter(name::equals).isPresent()) {
+            return Mono.just(cached);
+        }
+
+        return lookups.execute(name, () -> playerRepository.findOrCreateIdByName(name)
+                .doOnNext(id -> {
+                    ids.put(name, id);
+                    // Only takes a player the ranking does not have yet, so existing players keep their stats
+                    leaderboard.add(Player.builder()
+                            .id(id)
+                            .name(name)
+                            .gamesPlayed(0)
+                            .gamesWon(0)
+                            .gamesLost(0)
+                            .build());
+                }));
+    }
+
+    public void forget(String name) {
+        ids.remove(name);
+    }
+}
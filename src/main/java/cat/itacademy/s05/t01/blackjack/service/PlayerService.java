@@ -3,12 +3,14 @@ package cat.itacademy.s05.t01.blackjack.service;
 import cat.itacademy.s05.t01.blackjack.dto.PlayerRankingResponse;
 import cat.itacademy.s05.t01.blackjack.dto.PlayerResponse;
 import cat.itacademy.s05.t01.blackjack.dto.PlayerUpdateRequest;
+import cat.itacademy.s05.t01.blackjack.dto.RankingEvent;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface PlayerService {
 
     Mono<PlayerResponse> updatePlayerName(Long playerId, PlayerUpdateRequest request);
-    Flux<PlayerRankingResponse> getRanking();
+    Flux<PlayerRankingResponse> getRanking(int limit, String cursor);
+    Flux<RankingEvent> streamRankingChanges();
 
 }
@@ -3,24 +3,29 @@ package cat.itacademy.s05.t01.blackjack.service;
 import cat.itacademy.s05.t01.blackjack.dto.PlayerRankingResponse;
 import cat.itacademy.s05.t01.blackjack.dto.PlayerResponse;
 import cat.itacademy.s05.t01.blackjack.dto.PlayerUpdateRequest;
+import cat.itacademy.s05.t01.blackjack.dto.RankingEvent;
 import cat.itacademy.s05.t01.blackjack.exception.NotFoundException;
 import cat.itacademy.s05.t01.blackjack.exception.ValidationException;
 import cat.itacademy.s05.t01.blackjack.model.mysql.Player;
 import cat.itacademy.s05.t01.blackjack.repository.mysql.PlayerRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.Comparator;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 
 @Service
 @RequiredArgsConstructor
 public class PlayerServiceImpl implements PlayerService {
 
     private final PlayerRepository playerRepository;
+    private final Leaderboard leaderboard;
+    private final PlayerIdCache playerIds;
 
     @Override
     public Mono<PlayerResponse> updatePlayerName(Long playerId, PlayerUpdateRequest request) {
@@ -28,9 +33,16 @@ public class PlayerServiceImpl implements PlayerService {
         return playerRepository.findById(playerId)
                 .switchIfEmpty(Mono.error(new NotFoundException("Player not found")))
                 .flatMap(player -> {
-                    player.setName(request.newName().trim());
-                    return playerRepository.save(player);
+                    String oldName = player.getName();
+                    // Only the name is written; the counters are read again for the response
+                    return playerRepository.rename(playerId, request.newName().trim())
+                            .onErrorMap(DataIntegrityViolationException.class,
+                                    ex -> new ValidationException("Player name already taken"))
+                            .doOnNext(renamed -> playerIds.forget(oldName))
+                            .then(playerRepository.findById(playerId))
+                            .switchIfEmpty(Mono.error(new NotFoundException("Player not found")));
                 })
+                .doOnNext(saved -> leaderboard.rename(saved.getId(), saved.getName()))
                 .map(saved -> PlayerResponse.builder()
                         .id(saved.getId())
                         .name(saved.getName())
@@ -41,27 +53,64 @@ public class PlayerServiceImpl implements PlayerService {
     }
 
     @Override
-    public Flux<PlayerRankingResponse> getRanking() {
-        return playerRepository.findAll()
-                .sort(RANKING_ORDER)
-                .map(player -> {
-                    double winRate = player.getGamesPlayed() == 0 ? 0 :
-                            (double) player.getGamesWon() / player.getGamesPlayed();
-
-                    return PlayerRankingResponse.builder()
-                            .id(player.getId())
-                            .name(player.getName())
-                            .gamesPlayed(player.getGamesPlayed())
-                            .gamesWon(player.getGamesWon())
-                            .gamesLost(player.getGamesLost())
-                            .winRate(winRate)
-                            .build();
-                });
+    public Flux<PlayerRankingResponse> getRanking(int limit, String cursor) {
+        if (limit < 1 || limit > MAX_RANKING_PAGE) {
+            return Flux.error(new ValidationException("Limit must be between 1 and " + MAX_RANKING_PAGE));
+        }
+
+        RankingCursor after = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                after = RankingCursor.decode(cursor);
+            } catch (IllegalArgumentException ex) {
+                return Flux.error(new ValidationException("Invalid ranking cursor"));
+            }
+        }
+
+        Flux<Player> page = leaderboard.isFresh()
+                ? Flux.fromIterable(after == null
+                        ? leaderboard.top(limit)
+                        : leaderboard.after(after.gamesWon(), after.winRate(), after.id(), limit))
+                : after == null
+                        ? playerRepository.findRanking(limit)
+                        : playerRepository.findRankingAfter(after.gamesWon(), after.winRate(), after.id(), limit);
+
+        return page.map(player -> PlayerRankingResponse.builder()
+                .id(player.getId())
+                .name(player.getName())
+                .gamesPlayed(player.getGamesPlayed())
+                .gamesWon(player.getGamesWon())
+                .gamesLost(player.getGamesLost())
+                .winRate(player.getWinRate())
+                .cursor(RankingCursor.of(player).encode())
+                .build());
+    }
+
+    @Override
+    public Flux<RankingEvent> streamRankingChanges() {
+        return leaderboard.changes();
     }
 
-    private static final Comparator<Player> RANKING_ORDER = Comparator
-            .comparing(Player::getGamesWon).reversed()
-            .thenComparing(p -> p.getGamesPlayed() == 0 ? 0 :
-                    (double) p.getGamesWon() / p.getGamesPlayed(), Comparator.reverseOrder())
-            .thenComparing(Player::getId);
+    private static final int MAX_RANKING_PAGE = 100;
+
+    // Sort key of the last player on a page, opaque to clients
+    private record RankingCursor(int gamesWon, double winRate, long id) {
+
+        static RankingCursor of(Player player) {
+            return new RankingCursor(player.getGamesWon(), player.getWinRate(), player.getId());
+        }
+
+        String encode() {
+            String key = gamesWon + ":" + winRate + ":" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static RankingCursor decode(String cursor) {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new RankingCursor(Integer.parseInt(parts[0]), Double.parseDouble(parts[1]), Long.parseLong(parts[2]));
+        }
+    }
 }
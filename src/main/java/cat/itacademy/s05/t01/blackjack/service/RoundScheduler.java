@@ -0,0 +1,75 @@
+package cat.itacademy.s05.t01.blackjack.service;
+
+import cat.itacademy.s05.t01.blackjack.model.mongo.Move;
+import cat.itacademy.s05.t01.blackjack.model.mongo.Table;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Collects the seat actions sent to a table during a short window and hands
+ * them over together, so a table is loaded and written once per window
+ * instead of once per action. The flush completes every action's result.
+ */
+@Slf4j
+class RoundScheduler {
+
+    record SeatAction(int seat, Move move) {}
+
+    record Pending(SeatAction action, Sinks.One<Table> result) {}
+
+    private final Duration window;
+    private final BiFunction<String, List<Pending>, Mono<Void>> flush;
+    private final Map<String, List<Pending>> queued = new ConcurrentHashMap<>();
+
+    RoundScheduler(Duration window, BiFunction<String, List<Pending>, Mono<Void>> flush) {
+        this.window = window;
+        this.flush = flush;
+    }
+
+    Mono<Table> submit(String tableId, SeatAction action) {
+        return Mono.defer(() -> {
+            Pending pending = new Pending(action, Sinks.one());
+            boolean[] first = {false};
+
+            queued.compute(tableId, (id, actions) -> {
+                if (actions == null) {
+                    actions = new ArrayList<>();
+                    first[0] = true;
+                }
+                actions.add(pending);
+                return actions;
+            });
+
+            // The first action of a window schedules its flush, later ones ride along
+            if (first[0]) {
+                Mono.delay(window)
+                        .then(Mono.defer(() -> flush(tableId)))
+                        .subscribe();
+            }
+
+            return pending.result().asMono();
+        });
+    }
+
+    private Mono<Void> flush(String tableId) {
+        List<Pending> batch = queued.remove(tableId);
+        if (batch == null) {
+            return Mono.empty();
+        }
+
+        return flush.apply(tableId, batch)
+                .onErrorResume(ex -> {
+                    log.debug("Could not apply {} actions on table {}", batch.size(), tableId, ex);
+                    batch.forEach(pending -> pending.result().tryEmitError(ex));
+                    return Mono.empty();
+                });
+    }
+}
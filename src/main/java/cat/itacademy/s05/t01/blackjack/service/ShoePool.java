@@ -0,0 +1,173 @@
+package cat.itacademy.s05.t01.blackjack.service;
+
+import cat.itacademy.s05.t01.blackjack.config.ShoeProperties;
+import cat.itacademy.s05.t01.blackjack.model.mongo.Shoe;
+import cat.itacademy.s05.t01.blackjack.repository.mongo.ShoeReactiveRepository;
+import cat.itacademy.s05.t01.blackjack.util.BlackjackRules;
+import cat.itacademy.s05.t01.blackjack.util.DeckFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands out seats in shared multi-deck shoes. Shoes are shuffled and stored
+ * in the background so creating a game never pays for the shuffle, and every
+ * game gets its own block of {@code cardsPerGame} cards from the shoe that is
+ * currently being dealt. Games are only seated before the cut card; the cards
+ * past it are blocks for games that might run out of their own, after a split
+ * or a long dealer run. Those are claimed through the shoe document, so every
+ * instance can extend any shoe and games never share cards.
+ */
+@Slf4j
+@Component
+public class ShoePool {
+
+    /** Cards {@code firstCard} (inclusive) to {@code endCard} (exclusive) of the shoe. */
+    public record Placement(Shoe shoe, int firstCard, int endCard) {}
+
+    private record Dealing(Shoe shoe, AtomicInteger nextBlock) {}
+
+    private final ShoeReactiveRepository shoeRepository;
+    private final ShoeProperties properties;
+
+    private final BlockingQueue<Shoe> ready;
+    // Shoes that did not fit in the full pool: a request that lost the race to a fresh shoe, or a late refill
+    private final Deque<Shoe> spares = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger refillsInFlight = new AtomicInteger();
+    private final AtomicReference<Dealing> current = new AtomicReference<>();
+    private final Map<String, Shoe> recent;
+
+    public ShoePool(ShoeReactiveRepository shoeRepository, ShoeProperties properties) {
+        this.shoeRepository = shoeRepository;
+        this.properties = properties;
+        this.ready = new ArrayBlockingQueue<>(properties.poolSize());
+        this.recent = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Shoe> eldest) {
+                return size() > properties.cacheSize();
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        refill();
+    }
+
+    public Mono<Placement> reserve() {
+        return Mono.defer(() -> {
+            Dealing dealing = current.get();
+            if (dealing != null) {
+                int firstCard = dealing.nextBlock().getAndAdd(properties.cardsPerGame());
+                // Only whole blocks, unless the cut card leaves room for less than one
+                if (firstCard == 0 || firstCard + properties.cardsPerGame() <= dealing.shoe().getCutCard()) {
+                    return Mono.just(placement(dealing.shoe(), firstCard));
+                }
+            }
+
+            return nextShoe().flatMap(shoe -> {
+                if (!current.compareAndSet(dealing, new Dealing(shoe, new AtomicInteger()))) {
+                    // Another request already moved on to a fresh shoe
+                    giveBack(shoe);
+                }
+                return reserve();
+            });
+        });
+    }
+
+    /**
+     * Another block of the same shoe, past its cut card, for a game that could run
+     * out of its own. A block is never smaller than what one move may draw. Empty
+     * once the shoe is used up.
+     */
+    public Mono<Placement> extend(Shoe shoe) {
+        int cards = Math.max(properties.cardsPerGame(), BlackjackRules.MAX_CARDS_PER_MOVE);
+        return shoeRepository.claimBlock(shoe, cards)
+                .filter(firstCard -> firstCard < shoe.getCards().length)
+                .map(firstCard -> new Placement(shoe, firstCard, Math.min(firstCard + cards, shoe.getCards().length)));
+    }
+
+    // Seating blocks stop at the cut card, the cards past it are for extensions
+    private Placement placement(Shoe shoe, int firstCard) {
+        return new Placement(shoe, firstCard, Math.min(firstCard + properties.cardsPerGame(), shoe.getCutCard()));
+    }
+
+    /** A whole shoe for a table, which deals every card of it itself. */
+    public Mono<Shoe> takeShoe() {
+        return Mono.defer(this::nextShoe);
+    }
+
+    public Mono<Shoe> findShoe(String shoeId) {
+        Shoe cached = recent.get(shoeId);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+
+        return shoeRepository.findById(shoeId)
+                .doOnNext(this::remember);
+    }
+
+    private Mono<Shoe> nextShoe() {
+        Shoe shoe = spares.poll();
+        if (shoe == null) {
+            shoe = ready.poll();
+        }
+        refill();
+
+        if (shoe != null) {
+            remember(shoe);
+            return Mono.just(shoe);
+        }
+
+        // Pool ran dry: shuffle off the request thread and wait for it
+        return createShoe().doOnNext(this::remember);
+    }
+
+    private void refill() {
+        while (ready.size() + spares.size() + refillsInFlight.get() < properties.poolSize()) {
+            refillsInFlight.incrementAndGet();
+            createShoe()
+                    .doFinally(signal -> refillsInFlight.decrementAndGet())
+                    .subscribe(this::giveBack, ex -> log.warn("Could not prepare a shoe", ex));
+        }
+    }
+
+    // A stored shoe is never dropped: what the pool has no room for is dealt first
+    private void giveBack(Shoe shoe) {
+        if (!ready.offer(shoe)) {
+            spares.offer(shoe);
+        }
+    }
+
+    private Mono<Shoe> createShoe() {
+        return Mono.fromCallable(() -> {
+                    byte[] cards = DeckFactory.createShuffledShoe(properties.decks());
+                    int cutCard = (int) (cards.length * properties.penetration());
+                    return Shoe.builder()
+                            .decks(properties.decks())
+                            .cards(cards)
+                            .cutCard(cutCard)
+                            .nextBlock(cutCard)
+                            .build();
+                })
+                .subscribeOn(Schedulers.parallel())
+                .flatMap(shoeRepository::save);
+    }
+
+    private void remember(Shoe shoe) {
+        recent.put(shoe.getId(), shoe);
+    }
+}
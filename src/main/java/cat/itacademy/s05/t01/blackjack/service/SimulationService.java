@@ -0,0 +1,10 @@
+package cat.itacademy.s05.t01.blackjack.service;
+
+import cat.itacademy.s05.t01.blackjack.dto.SimulationRequest;
+import cat.itacademy.s05.t01.blackjack.dto.SimulationResponse;
+import reactor.core.publisher.Mono;
+
+public interface SimulationService {
+
+    Mono<SimulationResponse> simulate(SimulationRequest request);
+}
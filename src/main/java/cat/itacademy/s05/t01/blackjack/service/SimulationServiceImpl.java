@@ -0,0 +1,82 @@
+package cat.itacademy.s05.t01.blackjack.service;
+
+import cat.itacademy.s05.t01.blackjack.config.ShoeProperties;
+import cat.itacademy.s05.t01.blackjack.config.SimulationProperties;
+import cat.itacademy.s05.t01.blackjack.dto.SimulationRequest;
+import cat.itacademy.s05.t01.blackjack.dto.SimulationResponse;
+import cat.itacademy.s05.t01.blackjack.exception.TooManyRequestsException;
+import cat.itacademy.s05.t01.blackjack.util.SimulationEngine;
+import cat.itacademy.s05.t01.blackjack.util.SimulationResult;
+import cat.itacademy.s05.t01.blackjack.util.SimulationStrategy;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Runs simulations on a scheduler of their own, so long runs never take
+ * threads from the event loop or the common fork/join pool, and rejects new
+ * runs while {@code maxConcurrent} are already playing.
+ */
+@Service
+public class SimulationServiceImpl implements SimulationService {
+
+    private final ShoeProperties shoeProperties;
+    private final SimulationProperties properties;
+    private final Scheduler scheduler;
+    private final Semaphore running;
+
+    public SimulationServiceImpl(ShoeProperties shoeProperties, SimulationProperties properties) {
+        this.shoeProperties = shoeProperties;
+        this.properties = properties;
+        this.scheduler = Schedulers.newParallel("simulation", properties.threads());
+        this.running = new Semaphore(properties.maxConcurrent());
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.dispose();
+    }
+
+    @Override
+    public Mono<SimulationResponse> simulate(SimulationRequest request) {
+        return Mono.defer(() -> {
+            SimulationStrategy strategy = SimulationStrategy.from(request.strategy());
+            int decks = request.decks() != null ? request.decks() : shoeProperties.decks();
+            long seed = request.seed() != null ? request.seed() : ThreadLocalRandom.current().nextLong();
+
+            if (!running.tryAcquire()) {
+                return Mono.error(new TooManyRequestsException("Too many simulations running, try again later"));
+            }
+
+            long start = System.nanoTime();
+            // A client that goes away cancels the run and frees its slot
+            return SimulationEngine.simulate(request.hands(), decks, shoeProperties.penetration(), strategy, seed,
+                            scheduler, properties.threads())
+                    .map(result -> toResponse(result, decks, strategy, seed, (System.nanoTime() - start) / 1_000_000))
+                    .doFinally(signal -> running.release());
+        });
+    }
+
+    private static SimulationResponse toResponse(SimulationResult result, int decks, SimulationStrategy strategy,
+                                                 long seed, long elapsedMillis) {
+        return SimulationResponse.builder()
+                .hands(result.hands())
+                .decks(decks)
+                .strategy(strategy.name())
+                .seed(seed)
+                .wins(result.wins())
+                .losses(result.losses())
+                .pushes(result.pushes())
+                .playerBusts(result.playerBusts())
+                .dealerBusts(result.dealerBusts())
+                .winRate((double) result.wins() / result.hands())
+                .expectedValue(result.expectedValue())
+                .elapsedMillis(elapsedMillis)
+                .build();
+    }
+}
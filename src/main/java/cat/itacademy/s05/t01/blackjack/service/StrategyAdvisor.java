@@ -0,0 +1,72 @@
+package cat.itacademy.s05.t01.blackjack.service;
+
+import cat.itacademy.s05.t01.blackjack.config.AdvisorProperties;
+import cat.itacademy.s05.t01.blackjack.config.ShoeProperties;
+import cat.itacademy.s05.t01.blackjack.model.mongo.Game;
+import cat.itacademy.s05.t01.blackjack.model.mongo.Move;
+import cat.itacademy.s05.t01.blackjack.util.BlackjackRules;
+import cat.itacademy.s05.t01.blackjack.util.DealerProbabilities;
+import cat.itacademy.s05.t01.blackjack.util.HandState;
+import cat.itacademy.s05.t01.blackjack.util.StrategySolver;
+import cat.itacademy.s05.t01.blackjack.util.StrategyTable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Suggests the next move of a game in progress. The basic strategy table for
+ * the configured shoe is solved once at startup; composition-dependent advice
+ * is solved per hand off the event loop.
+ */
+@Slf4j
+@Component
+public class StrategyAdvisor {
+
+    private final AdvisorProperties properties;
+    private final int shoeDecks;
+    private final DealerProbabilities dealerProbabilities;
+    private final StrategyTable table;
+
+    public StrategyAdvisor(AdvisorProperties properties, ShoeProperties shoeProperties) {
+        this.properties = properties;
+        this.shoeDecks = shoeProperties.decks();
+        this.dealerProbabilities = new DealerProbabilities(properties.dealerCacheSize());
+
+        long start = System.nanoTime();
+        this.table = StrategySolver.solveTable(shoeDecks, dealerProbabilities);
+        log.info("Solved basic strategy for {} decks in {} ms", shoeDecks, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public StrategyTable table() {
+        return table;
+    }
+
+    public Mono<Move> advise(Game game) {
+        byte[] playerHand = game.getHands().get(game.getActiveHand()).getCards();
+        byte dealerUpCard = game.getDealerHand()[0];
+        HandState player = BlackjackRules.evaluate(playerHand);
+        int dealerUp = StrategySolver.valueIndex(dealerUpCard);
+        boolean canDouble = playerHand.length == 2;
+        int pair = BlackjackRules.canSplit(playerHand) && game.getHands().size() < GameServiceImpl.MAX_HANDS
+                ? StrategySolver.valueIndex(playerHand[0])
+                : StrategySolver.NO_PAIR;
+
+        if (properties.mode() == AdvisorProperties.Mode.TABLE) {
+            return Mono.just(table.lookup(player.total(), player.isSoft(), dealerUp, canDouble, pair));
+        }
+
+        return Mono.fromCallable(() -> {
+                    // Games created before shoes were dealt from a single deck
+                    int[] remaining = StrategySolver.shoeComposition(game.getShoeId() == null ? 1 : shoeDecks);
+                    for (byte card : playerHand) {
+                        remaining[StrategySolver.valueIndex(card)]--;
+                    }
+                    remaining[StrategySolver.valueIndex(dealerUpCard)]--;
+
+                    return StrategySolver.bestMove(remaining, player.total(), player.isSoft(), dealerUp,
+                            canDouble, pair, dealerProbabilities);
+                })
+                .subscribeOn(Schedulers.parallel());
+    }
+}
@@ -0,0 +1,15 @@
+package cat.itacademy.s05.t01.blackjack.service;
+
+import cat.itacademy.s05.t01.blackjack.dto.JoinTableRequest;
+import cat.itacademy.s05.t01.blackjack.dto.PlayRequestDTO;
+import cat.itacademy.s05.t01.blackjack.dto.TableResponse;
+import reactor.core.publisher.Mono;
+
+public interface TableService {
+
+    Mono<TableResponse> createTable();
+    Mono<TableResponse> getTable(String tableId);
+    Mono<TableResponse> joinTable(String tableId, JoinTableRequest request);
+    Mono<TableResponse> startRound(String tableId);
+    Mono<TableResponse> playSeat(String tableId, int seat, PlayRequestDTO request);
+}
@@ -0,0 +1,409 @@
+package cat.itacademy.s05.t01.blackjack.service;
+
+import cat.itacademy.s05.t01.blackjack.config.TableProperties;
+import cat.itacademy.s05.t01.blackjack.dto.JoinTableRequest;
+import cat.itacademy.s05.t01.blackjack.dto.PlayRequestDTO;
+import cat.itacademy.s05.t01.blackjack.dto.SeatResponse;
+import cat.itacademy.s05.t01.blackjack.dto.TableResponse;
+import cat.itacademy.s05.t01.blackjack.exception.InvalidMoveException;
+import cat.itacademy.s05.t01.blackjack.exception.NotFoundException;
+import cat.itacademy.s05.t01.blackjack.model.mongo.*;
+import cat.itacademy.s05.t01.blackjack.repository.mongo.TableReactiveRepository;
+import cat.itacademy.s05.t01.blackjack.repository.mysql.PlayerRepository;
+import cat.itacademy.s05.t01.blackjack.repository.mysql.PlayerResultRepository;
+import cat.itacademy.s05.t01.blackjack.util.BlackjackRules;
+import cat.itacademy.s05.t01.blackjack.util.Cards;
+import cat.itacademy.s05.t01.blackjack.util.HandState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rounds at multi-seat tables. Seat actions go through a {@link RoundScheduler}
+ * so every action sent to a table in the same window shares one read and one
+ * write, and the round is settled once for all seats: one dealer hand and one
+ * batched statement for the players' results. A round nobody acts on for
+ * {@code actionTimeout} is finished by standing every seat still playing.
+ */
+@Slf4j
+@Service
+public class TableServiceImpl implements TableService {
+
+    private static final int MAX_WRITE_RETRIES = 3;
+
+    private final TableReactiveRepository tableRepository;
+    private final PlayerRepository playerRepository;
+    private final ShoePool shoePool;
+    private final Leaderboard leaderboard;
+    private final TableProperties properties;
+    private final PlayerIdCache playerIds;
+    private final RoundScheduler scheduler;
+    private final Map<String, Disposable> actionTimeouts = new ConcurrentHashMap<>();
+
+    public TableServiceImpl(TableReactiveRepository tableRepository,
+                            PlayerRepository playerRepository,
+                            ShoePool shoePool,
+                            Leaderboard leaderboard,
+                            TableProperties properties,
+                            PlayerIdCache playerIds) {
+        this.tableRepository = tableRepository;
+        this.playerRepository = playerRepository;
+        this.shoePool = shoePool;
+        this.leaderboard = leaderboard;
+        this.properties = properties;
+        this.playerIds = playerIds;
+        this.scheduler = new RoundScheduler(properties.actionWindow(), this::applyActions);
+    }
+
+    @Override
+    public Mono<TableResponse> createTable() {
+        return shoePool.takeShoe()
+                .flatMap(shoe -> tableRepository.save(Table.builder()
+                        .seats(new ArrayList<>())
+                        .shoeId(shoe.getId())
+                        .build()))
+                .map(this::toTableResponse);
+    }
+
+    @Override
+    public Mono<TableResponse> getTable(String tableId) {
+        return findTable(tableId).map(this::toTableResponse);
+    }
+
+    @Override
+    public Mono<TableResponse> joinTable(String tableId, JoinTableRequest request) {
+        String playerName = request.playerName().trim();
+
+        return playerIds.idOf(playerName)
+                .flatMap(playerId -> Mono.defer(() -> findTable(tableId))
+                        .flatMap(table -> {
+                            if (table.getSeats().stream().anyMatch(seat -> seat.getPlayerId().equals(playerId))) {
+                                return Mono.error(new InvalidMoveException("Player is already seated at this table"));
+                            }
+                            if (table.getSeats().size() >= properties.seats()) {
+                                return Mono.error(new InvalidMoveException("Table is full"));
+                            }
+
+                            table.getSeats().add(Seat.builder()
+                                    .number(freeSeat(table))
+                                    .playerId(playerId)
+                                    .playerName(playerName)
+                                    .build());
+                            return tableRepository.save(table);
+                        })
+                        .retryWhen(writeRetry()))
+                .map(this::toTableResponse);
+    }
+
+    @Override
+    public Mono<TableResponse> startRound(String tableId) {
+        return Mono.defer(() -> findTable(tableId))
+                .flatMap(table -> {
+                    if (table.getRound() != null && table.getRound().getStatus() == RoundStatus.PLAYING) {
+                        return Mono.error(new IllegalStateException("Round already in progress"));
+                    }
+                    if (table.getSeats().isEmpty()) {
+                        return Mono.error(new IllegalStateException("No players seated at this table"));
+                    }
+
+                    return shoeForRound(table).flatMap(shoe -> {
+                        dealRound(table, shoe);
+                        return tableRepository.save(table);
+                    });
+                })
+                .retryWhen(writeRetry())
+                .doOnNext(this::scheduleActionTimeout)
+                .map(this::toTableResponse);
+    }
+
+    @Override
+    public Mono<TableResponse> playSeat(String tableId, int seat, PlayRequestDTO request) {
+        Move move = Move.from(request.move());
+        if (move != Move.HIT && move != Move.STAND && move != Move.DOUBLE) {
+            return Mono.error(new InvalidMoveException("Only HIT, STAND and DOUBLE can be played at a table"));
+        }
+
+        return scheduler.submit(tableId, new RoundScheduler.SeatAction(seat, move))
+                .map(this::toTableResponse);
+    }
+
+    // Applies every queued action on one read of the table and stores them with one write
+    private Mono<Void> applyActions(String tableId, List<RoundScheduler.Pending> batch) {
+        return Mono.defer(() -> findTable(tableId))
+                .flatMap(table -> shoePool.findShoe(table.getShoeId())
+                        .switchIfEmpty(Mono.error(new IllegalStateException("Shoe not found for table")))
+                        .flatMap(shoe -> {
+                            List<RoundScheduler.Pending> applied = new ArrayList<>();
+                            List<RoundScheduler.Pending> rejected = new ArrayList<>();
+                            List<RuntimeException> errors = new ArrayList<>();
+
+                            for (RoundScheduler.Pending pending : batch) {
+                                try {
+                                    applySeatAction(table, shoe, pending.action());
+                                    applied.add(pending);
+                                } catch (InvalidMoveException | IllegalStateException ex) {
+                                    rejected.add(pending);
+                                    errors.add(ex);
+                                }
+                            }
+
+                            boolean settled = !applied.isEmpty() && settleIfDone(table, shoe);
+                            if (!applied.isEmpty() && !settled) {
+                                table.getRound().setActionDeadline(Instant.now().plus(properties.actionTimeout()));
+                            }
+                            Mono<Table> saved = applied.isEmpty()
+                                    ? Mono.just(table)
+                                    : tableRepository.save(table)
+                                            .flatMap(stored -> settled
+                                                    ? recordResults(stored).thenReturn(stored)
+                                                    : Mono.just(stored));
+
+                            return saved.doOnNext(stored -> {
+                                if (!applied.isEmpty()) {
+                                    scheduleActionTimeout(stored);
+                                }
+                                applied.forEach(pending -> pending.result().tryEmitValue(stored));
+                                for (int i = 0; i < rejected.size(); i++) {
+                                    rejected.get(i).result().tryEmitError(errors.get(i));
+                                }
+                            });
+                        }))
+                .retryWhen(writeRetry())
+                .then();
+    }
+
+    // Only the latest timer of a table is kept; each one re-reads the stored deadline
+    private void scheduleActionTimeout(Table table) {
+        String tableId = table.getId();
+        Round round = table.getRound();
+        if (round == null || round.getStatus() != RoundStatus.PLAYING || round.getActionDeadline() == null) {
+            Disposable previous = actionTimeouts.remove(tableId);
+            if (previous != null) {
+                previous.dispose();
+            }
+            return;
+        }
+
+        Disposable.Swap timer = Disposables.swap();
+        Disposable previous = actionTimeouts.put(tableId, timer);
+        if (previous != null) {
+            previous.dispose();
+        }
+
+        Duration delay = Duration.between(Instant.now(), round.getActionDeadline());
+        timer.update(Mono.delay(delay.isNegative() ? Duration.ZERO : delay)
+                .then(Mono.defer(() -> standIdleSeats(tableId)))
+                .onErrorResume(ex -> {
+                    log.warn("Could not time out the round on table {}", tableId, ex);
+                    return Mono.empty();
+                })
+                .doFinally(signal -> actionTimeouts.remove(tableId, timer))
+                .subscribe());
+    }
+
+    // Another instance may have moved the round on meanwhile: only a deadline that has passed stands the seats
+    private Mono<Void> standIdleSeats(String tableId) {
+        return Mono.defer(() -> findTable(tableId))
+                .filter(table -> {
+                    Round round = table.getRound();
+                    return round != null && round.getStatus() == RoundStatus.PLAYING
+                            && round.getActionDeadline() != null
+                            && !Instant.now().isBefore(round.getActionDeadline());
+                })
+                .flatMap(table -> shoePool.findShoe(table.getShoeId())
+                        .switchIfEmpty(Mono.error(new IllegalStateException("Shoe not found for table")))
+                        .flatMap(shoe -> {
+                            table.getSeats().stream()
+                                    .map(Seat::getHand)
+                                    .filter(hand -> hand != null && hand.getStatus() == HandStatus.PLAYING)
+                                    .forEach(hand -> hand.setStatus(HandStatus.STOOD));
+                            settleIfDone(table, shoe);
+                            return tableRepository.save(table).flatMap(this::recordResults);
+                        }))
+                .retryWhen(writeRetry())
+                .then();
+    }
+
+    private void applySeatAction(Table table, Shoe shoe, RoundScheduler.SeatAction action) {
+        Round round = table.getRound();
+        if (round == null || round.getStatus() != RoundStatus.PLAYING) {
+            throw new IllegalStateException("No round in progress");
+        }
+
+        PlayerHand hand = table.getSeats().stream()
+                .filter(seat -> seat.getNumber() == action.seat())
+                .map(Seat::getHand)
+                .filter(seatHand -> seatHand != null && seatHand.getStatus() == HandStatus.PLAYING)
+                .findFirst()
+                .orElseThrow(() -> new InvalidMoveException("Seat " + action.seat() + " is not playing this round"));
+
+        switch (action.move()) {
+            case HIT -> {
+                if (GameServiceImpl.addCard(hand, drawCard(table, shoe)).isBust()) {
+                    hand.setStatus(HandStatus.BUST);
+                }
+            }
+            case STAND -> hand.setStatus(HandStatus.STOOD);
+            case DOUBLE -> {
+                if (hand.getCards().length != 2) {
+                    throw new InvalidMoveException("Can only double down on two cards");
+                }
+                hand.setBet(hand.getBet() * 2);
+                HandState state = GameServiceImpl.addCard(hand, drawCard(table, shoe));
+                hand.setStatus(state.isBust() ? HandStatus.BUST : HandStatus.STOOD);
+            }
+            default -> throw new InvalidMoveException("Only HIT, STAND and DOUBLE can be played at a table");
+        }
+    }
+
+    // Plays the dealer once for every seat when no hand is left to play
+    private boolean settleIfDone(Table table, Shoe shoe) {
+        List<PlayerHand> hands = table.getSeats().stream()
+                .map(Seat::getHand)
+                .filter(hand -> hand != null)
+                .toList();
+
+        if (hands.stream().anyMatch(hand -> hand.getStatus() == HandStatus.PLAYING)) {
+            return false;
+        }
+
+        Round round = table.getRound();
+        HandState dealerState = BlackjackRules.evaluate(round.getDealerHand());
+        boolean dealerPlays = hands.stream().anyMatch(hand -> hand.getStatus() == HandStatus.STOOD);
+        while (dealerPlays && BlackjackRules.dealerMustHit(dealerState)) {
+            byte card = drawCard(table, shoe);
+            round.setDealerHand(Cards.append(round.getDealerHand(), card));
+            dealerState = dealerState.add(card);
+        }
+
+        for (PlayerHand hand : hands) {
+            hand.setResult(GameServiceImpl.handResult(hand, dealerState));
+        }
+        round.setStatus(RoundStatus.SETTLED);
+        return true;
+    }
+
+    private Mono<Long> recordResults(Table table) {
+        List<PlayerResultRepository.Result> results = table.getSeats().stream()
+                .filter(seat -> seat.getHand() != null)
+                .map(seat -> {
+                    GameStatus result = seat.getHand().getResult();
+                    int won = result == GameStatus.PLAYER_WIN ? 1 : 0;
+                    int lost = result == GameStatus.PLAYER_LOSE || result == GameStatus.PLAYER_BUST ? 1 : 0;
+                    return new PlayerResultRepository.Result(seat.getPlayerId(), won, lost);
+                })
+                .toList();
+
+        return playerRepository.recordResults(results)
+                .doOnNext(updated -> results.forEach(result ->
+                        leaderboard.recordResult(result.playerId(), result.won(), result.lost())));
+    }
+
+    private void dealRound(Table table, Shoe shoe) {
+        int number = table.getRound() != null ? table.getRound().getNumber() + 1 : 1;
+        List<Seat> seats = table.getSeats();
+
+        // Two passes round the table, the dealer taking the last card of each
+        byte[][] cards = new byte[seats.size()][2];
+        byte[] dealer = new byte[2];
+        for (int pass = 0; pass < 2; pass++) {
+            for (byte[] seatCards : cards) {
+                seatCards[pass] = drawCard(table, shoe);
+            }
+            dealer[pass] = drawCard(table, shoe);
+        }
+
+        for (int i = 0; i < seats.size(); i++) {
+            seats.get(i).setHand(GameServiceImpl.newHand(cards[i], BlackjackRules.evaluate(cards[i])));
+        }
+        table.setRound(Round.builder()
+                .number(number)
+                .status(RoundStatus.PLAYING)
+                .dealerHand(dealer)
+                .actionDeadline(Instant.now().plus(properties.actionTimeout()))
+                .build());
+    }
+
+    private Mono<Shoe> shoeForRound(Table table) {
+        return shoePool.findShoe(table.getShoeId())
+                .filter(shoe -> table.getNextCardIndex() < shoe.getCutCard())
+                // Past the cut card: the next round is dealt from a fresh shoe
+                .switchIfEmpty(Mono.defer(() -> shoePool.takeShoe()
+                        .doOnNext(shoe -> {
+                            table.setShoeId(shoe.getId());
+                            table.setNextCardIndex(0);
+                        })));
+    }
+
+    private byte drawCard(Table table, Shoe shoe) {
+        int index = table.getNextCardIndex();
+        if (index >= shoe.getCards().length) {
+            throw new IllegalStateException("No cards left in the shoe");
+        }
+
+        table.setNextCardIndex(index + 1);
+        return shoe.getCards()[index];
+    }
+
+    private int freeSeat(Table table) {
+        for (int number = 1; ; number++) {
+            int candidate = number;
+            if (table.getSeats().stream().noneMatch(seat -> seat.getNumber() == candidate)) {
+                return number;
+            }
+        }
+    }
+
+    private Mono<Table> findTable(String tableId) {
+        return tableRepository.findById(tableId)
+                .switchIfEmpty(Mono.error(new NotFoundException("Table not found")));
+    }
+
+    private Retry writeRetry() {
+        return Retry.max(MAX_WRITE_RETRIES)
+                .filter(OptimisticLockingFailureException.class::isInstance)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    private TableResponse toTableResponse(Table table) {
+        Round round = table.getRound();
+        byte[] dealerHand = round == null ? new byte[0]
+                : round.getStatus() == RoundStatus.PLAYING ? new byte[]{round.getDealerHand()[0]}
+                : round.getDealerHand();
+
+        List<SeatResponse> seats = new ArrayList<>(table.getSeats().size());
+        for (Seat seat : table.getSeats()) {
+            PlayerHand hand = seat.getHand();
+            seats.add(SeatResponse.builder()
+                    .seat(seat.getNumber())
+                    .playerId(seat.getPlayerId())
+                    .playerName(seat.getPlayerName())
+                    .cards(hand != null ? Cards.labels(hand.getCards()) : List.of())
+                    .value(hand != null ? hand.getTotal() : 0)
+                    .bet(hand != null ? hand.getBet() : 0)
+                    .status(hand != null ? hand.getStatus().name() : null)
+                    .result(hand != null && hand.getResult() != null ? hand.getResult().name() : null)
+                    .build());
+        }
+
+        return TableResponse.builder()
+                .tableId(table.getId())
+                .roundNumber(round != null ? round.getNumber() : 0)
+                .roundStatus(round != null ? round.getStatus().name() : null)
+                .dealerHand(Cards.labels(dealerHand))
+                .dealerValue(BlackjackRules.evaluate(dealerHand).total())
+                .seats(seats)
+                .build();
+    }
+}
@@ -9,15 +9,35 @@ public class BlackjackRules {
     private static final int ACE_HIGH = 11;
     private static final int ACE_LOW_ADJUSTMENT = 10;
 
+    private static final int[] RANK_VALUES = {
+            ACE_HIGH, 2, 3, 4, 5, 6, 7, 8, 9, 10, FACE_VALUE, FACE_VALUE, FACE_VALUE
+    };
+
+    private static final int DEALER_STANDS_ON = 17;
+
+    // Most cards one move can draw: two for split aces, then ten for the dealer (2, 2, 2, 2, 2, A, A, A, A, A)
+    public static final int MAX_CARDS_PER_MOVE = 12;
+
     private BlackjackRules() {}
 
-    public static int calculateHandValue(List<String> hand) {
+    public static HandState evaluate(byte[] hand) {
+        HandState state = HandState.EMPTY;
+        for (byte card : hand) {
+            state = state.add(card);
+        }
+        return state;
+    }
+
+    public static boolean dealerMustHit(HandState dealer) {
+        return dealer.total() < DEALER_STANDS_ON;
+    }
+
+    public static int calculateHandValue(byte[] hand) {
         int total = 0;
         int aces = 0;
 
-        for (String card : hand) {
-            int value = cardValue(card);
-            total += value;
+        for (byte card : hand) {
+            total += cardValue(card);
             if (isAce(card)) aces++;
         }
 
@@ -28,20 +48,27 @@ public class BlackjackRules {
         return total;
     }
 
+    public static int calculateHandValue(List<String> hand) {
+        return calculateHandValue(Cards.encodeAll(hand));
+    }
+
+    public static boolean isBlackjack(byte[] hand) {
+        return hand.length == 2 && calculateHandValue(hand) == BLACKJACK;
+    }
+
     public static boolean isBlackjack(List<String> hand) {
-        return hand.size() == 2 && calculateHandValue(hand) == BLACKJACK;
+        return isBlackjack(Cards.encodeAll(hand));
+    }
+
+    public static boolean canSplit(byte[] hand) {
+        return hand.length == 2 && cardValue(hand[0]) == cardValue(hand[1]);
     }
 
-    private static int cardValue(String card) {
-        String rank = card.substring(0, card.length() - 1);
-        return switch (rank) {
-            case "J", "Q", "K" -> FACE_VALUE;
-            case "A" -> ACE_HIGH;
-            default -> Integer.parseInt(rank);
-        };
+    private static int cardValue(byte card) {
+        return RANK_VALUES[Cards.rank(card)];
     }
 
-    private static boolean isAce(String card) {
-        return card.startsWith("A");
+    private static boolean isAce(byte card) {
+        return Cards.rank(card) == 0;
     }
 }
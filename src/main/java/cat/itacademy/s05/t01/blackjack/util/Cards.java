@@ -0,0 +1,82 @@
+package cat.itacademy.s05.t01.blackjack.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact card encoding: every card is a single byte {@code suit * 13 + rank},
+ * where rank 0 is the ace and rank 12 the king. Labels ("10H", "AS"...) are
+ * only produced at the API boundary.
+ */
+public final class Cards {
+
+    public static final int RANKS = 13;
+    public static final int SUITS = 4;
+    public static final int DECK_SIZE = RANKS * SUITS;
+
+    private static final String[] RANK_LABELS = {"A", "2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K"};
+    private static final String[] SUIT_LABELS = {"H", "D", "C", "S"};
+    private static final String[] LABELS = new String[DECK_SIZE];
+
+    static {
+        for (int suit = 0; suit < SUITS; suit++) {
+            for (int rank = 0; rank < RANKS; rank++) {
+                LABELS[suit * RANKS + rank] = RANK_LABELS[rank] + SUIT_LABELS[suit];
+            }
+        }
+    }
+
+    private Cards() {}
+
+    public static int rank(byte card) {
+        return card % RANKS;
+    }
+
+    public static String label(byte card) {
+        return LABELS[card];
+    }
+
+    public static byte encode(String label) {
+        if (label == null || label.length() < 2) {
+            throw new IllegalArgumentException("Invalid card: " + label);
+        }
+
+        String rank = label.substring(0, label.length() - 1);
+        String suit = label.substring(label.length() - 1);
+
+        int rankIndex = Arrays.asList(RANK_LABELS).indexOf(rank);
+        int suitIndex = Arrays.asList(SUIT_LABELS).indexOf(suit);
+        if (rankIndex < 0 || suitIndex < 0) {
+            throw new IllegalArgumentException("Invalid card: " + label);
+        }
+
+        return (byte) (suitIndex * RANKS + rankIndex);
+    }
+
+    public static byte[] encodeAll(List<String> labels) {
+        byte[] cards = new byte[labels.size()];
+        for (int i = 0; i < cards.length; i++) {
+            cards[i] = encode(labels.get(i));
+        }
+        return cards;
+    }
+
+    public static List<String> labels(byte[] cards) {
+        if (cards == null) {
+            return List.of();
+        }
+
+        List<String> labels = new ArrayList<>(cards.length);
+        for (byte card : cards) {
+            labels.add(LABELS[card]);
+        }
+        return labels;
+    }
+
+    public static byte[] append(byte[] cards, byte card) {
+        byte[] result = Arrays.copyOf(cards, cards.length + 1);
+        result[cards.length] = card;
+        return result;
+    }
+}
@@ -0,0 +1,158 @@
+package cat.itacademy.s05.t01.blackjack.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exact distribution of the dealer's final total (17, 18, 19, 20, 21 or bust)
+ * given the up card and the remaining cards, drawing with the same rule as
+ * the game ({@link BlackjackRules#dealerMustHit}).
+ * <p>
+ * Compositions are {@code int[10]} card counts indexed by value, see
+ * {@link StrategySolver}. The hole card and every draw are enumerated
+ * recursively without replacement. Results are kept in two tiers: a
+ * {@link Query} memoizes every intermediate (dealer hand, remaining cards)
+ * state it meets, and finished answers are shared between queries in a
+ * bounded LRU cache.
+ */
+public final class DealerProbabilities {
+
+    public static final int OUTCOMES = 6;
+    public static final int BUST = 5;
+
+    private static final int LOWEST_FINAL_TOTAL = 17;
+    private static final int BLACKJACK = 21;
+    private static final int TEN = 9;
+
+    private static final double[][] FINISHED = new double[OUTCOMES][OUTCOMES];
+
+    // One card of each value to advance a HandState with
+    private static final byte[] CARD_OF_VALUE = new byte[StrategySolver.VALUES];
+
+    static {
+        for (int outcome = 0; outcome < OUTCOMES; outcome++) {
+            FINISHED[outcome][outcome] = 1;
+        }
+        for (int value = 0; value < StrategySolver.VALUES; value++) {
+            CARD_OF_VALUE[value] = (byte) value;
+        }
+    }
+
+    private record Key(long counts, int dealerUp) {}
+
+    private final Map<Key, double[]> answers;
+
+    public DealerProbabilities(int maxCachedAnswers) {
+        this.answers = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, double[]> eldest) {
+                return size() > maxCachedAnswers;
+            }
+        });
+    }
+
+    /**
+     * Outcome probabilities for one dealer hand. The returned array is a copy
+     * the caller may keep.
+     */
+    public double[] outcomes(int[] remaining, int dealerUp) {
+        return newQuery().outcomes(remaining, dealerUp).clone();
+    }
+
+    /**
+     * Starts a set of related questions, e.g. every stand decision of one
+     * player hand, that share their intermediate dealer states. A query is
+     * not thread-safe.
+     */
+    public Query newQuery() {
+        return new Query();
+    }
+
+    public int cachedAnswers() {
+        return answers.size();
+    }
+
+    public final class Query {
+
+        // Intermediate states by dealer hand (total below 17, soft or not), then by packed counts
+        @SuppressWarnings("unchecked")
+        private final Map<Long, double[]>[] byHand = new Map[LOWEST_FINAL_TOTAL * 2];
+
+        private Query() {}
+
+        /**
+         * Same as {@link DealerProbabilities#outcomes} but returns the shared
+         * array without copying; it must not be modified. {@code remaining} is
+         * left as it was.
+         */
+        public double[] outcomes(int[] remaining, int dealerUp) {
+            long packed = pack(remaining);
+            Key key = new Key(packed, dealerUp);
+            double[] answer = answers.get(key);
+            if (answer == null) {
+                answer = draw(remaining.clone(), HandState.EMPTY.add(CARD_OF_VALUE[dealerUp]));
+                answers.put(key, answer);
+            }
+            return answer;
+        }
+
+        private double[] draw(int[] counts, HandState dealer) {
+            if (!BlackjackRules.dealerMustHit(dealer)) {
+                return FINISHED[dealer.isBust() ? BUST : dealer.total() - LOWEST_FINAL_TOTAL];
+            }
+
+            Map<Long, double[]> seen = forHand(dealer);
+            long key = pack(counts);
+            double[] cached = seen.get(key);
+            if (cached != null) {
+                return cached;
+            }
+
+            int left = 0;
+            for (int count : counts) {
+                left += count;
+            }
+
+            double[] outcomes = new double[OUTCOMES];
+            for (int value = 0; value < StrategySolver.VALUES; value++) {
+                if (counts[value] == 0) {
+                    continue;
+                }
+
+                double p = (double) counts[value] / left;
+                counts[value]--;
+                double[] next = draw(counts, dealer.add(CARD_OF_VALUE[value]));
+                counts[value]++;
+
+                for (int outcome = 0; outcome < OUTCOMES; outcome++) {
+                    outcomes[outcome] += p * next[outcome];
+                }
+            }
+
+            seen.put(key, outcomes);
+            return outcomes;
+        }
+
+        // Below 17, total and softness fully describe how the hand can go on
+        private Map<Long, double[]> forHand(HandState dealer) {
+            int index = dealer.total() * 2 + (dealer.isSoft() ? 1 : 0);
+            Map<Long, double[]> seen = byHand[index];
+            if (seen == null) {
+                seen = new HashMap<>();
+                byHand[index] = seen;
+            }
+            return seen;
+        }
+    }
+
+    // 6 bits for each count below ten (32 at most with 8 decks), 8 bits for tens (128)
+    static long pack(int[] counts) {
+        long key = 0;
+        for (int value = 0; value < TEN; value++) {
+            key |= (long) counts[value] << (value * 6);
+        }
+        return key | (long) counts[TEN] << (TEN * 6);
+    }
+}
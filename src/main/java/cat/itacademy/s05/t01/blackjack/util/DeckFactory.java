@@ -1,27 +1,38 @@
 package cat.itacademy.s05.t01.blackjack.util;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 public class DeckFactory {
 
-    private static final List<String> SUITS = List.of("H", "D", "C", "S");
-    private static final List<String> RANKS = List.of("A", "2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K");
-    private static final List<String> BASE_DECK;
+    private static final byte[] BASE_DECK = new byte[Cards.DECK_SIZE];
 
     static {
-        List<String> tempDeck = new ArrayList<>();
-        for (String suit : SUITS) {
-            for (String rank : RANKS) {
-                tempDeck.add(rank + suit);
-            }
+        for (int i = 0; i < BASE_DECK.length; i++) {
+            BASE_DECK[i] = (byte) i;
         }
-        BASE_DECK = List.copyOf(tempDeck);
     }
-    public static List<String> createShuffledDeck() {
-        List<String> deck = new ArrayList<>(BASE_DECK);
-        Collections.shuffle(deck);
-        return deck;
+
+    public static byte[] createShuffledDeck() {
+        return createShuffledShoe(1);
+    }
+
+    public static byte[] createShuffledShoe(int decks) {
+        return createShuffledShoe(decks, ThreadLocalRandom.current());
+    }
+
+    public static byte[] createShuffledShoe(int decks, RandomGenerator random) {
+        byte[] shoe = new byte[BASE_DECK.length * decks];
+        for (int deck = 0; deck < decks; deck++) {
+            System.arraycopy(BASE_DECK, 0, shoe, deck * BASE_DECK.length, BASE_DECK.length);
+        }
+
+        for (int i = shoe.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            byte tmp = shoe[i];
+            shoe[i] = shoe[j];
+            shoe[j] = tmp;
+        }
+        return shoe;
     }
 }
@@ -0,0 +1,95 @@
+package cat.itacademy.s05.t01.blackjack.util;
+
+/**
+ * Immutable running evaluation of a hand. Every reachable state is built once
+ * up front, so {@link #add(byte)} is a table lookup and never allocates.
+ */
+public final class HandState {
+
+    private static final int BLACKJACK = 21;
+    private static final int SOFT_BONUS = 10;
+
+    // Aces count as 1 here; a soft ace adds SOFT_BONUS on top
+    private static final int[] HARD_RANK_VALUES = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 10, 10, 10};
+
+    // A hand only draws while it is at most 21, so 31 is the highest hard total
+    // the game reaches; the table leaves headroom and saturates above it
+    private static final int MAX_HARD_TOTAL = 40;
+    private static final int MAX_CARDS = 31;
+
+    private static final HandState[] STATES = new HandState[(MAX_HARD_TOTAL + 1) * 2 * (MAX_CARDS + 1)];
+
+    static {
+        for (int hard = 0; hard <= MAX_HARD_TOTAL; hard++) {
+            for (int ace = 0; ace < 2; ace++) {
+                for (int count = 0; count <= MAX_CARDS; count++) {
+                    STATES[index(hard, ace == 1, count)] = new HandState(hard, ace == 1, count);
+                }
+            }
+        }
+    }
+
+    public static final HandState EMPTY = STATES[index(0, false, 0)];
+
+    private final int hardTotal;
+    private final boolean hasAce;
+    private final int cardCount;
+    private final int total;
+
+    private HandState(int hardTotal, boolean hasAce, int cardCount) {
+        this.hardTotal = hardTotal;
+        this.hasAce = hasAce;
+        this.cardCount = cardCount;
+        this.total = hasAce && hardTotal + SOFT_BONUS <= BLACKJACK ? hardTotal + SOFT_BONUS : hardTotal;
+    }
+
+    /**
+     * The state of a hand already evaluated, from what is stored of it. A hard hand
+     * holding an ace can never turn soft again, so it is taken as having none.
+     */
+    public static HandState of(int total, boolean soft, int cardCount) {
+        int hard = soft ? total - SOFT_BONUS : total;
+        return STATES[index(Math.min(hard, MAX_HARD_TOTAL), soft, Math.min(cardCount, MAX_CARDS))];
+    }
+
+    private static int index(int hard, boolean ace, int count) {
+        return (hard * 2 + (ace ? 1 : 0)) * (MAX_CARDS + 1) + count;
+    }
+
+    public HandState add(byte card) {
+        int rank = Cards.rank(card);
+        int hard = Math.min(hardTotal + HARD_RANK_VALUES[rank], MAX_HARD_TOTAL);
+        int count = Math.min(cardCount + 1, MAX_CARDS);
+        return STATES[index(hard, hasAce || rank == 0, count)];
+    }
+
+    public int total() {
+        return total;
+    }
+
+    /** Number of aces currently counted as 11 (at most one can be). */
+    public int softAces() {
+        return total != hardTotal ? 1 : 0;
+    }
+
+    public boolean isSoft() {
+        return total != hardTotal;
+    }
+
+    public int cardCount() {
+        return cardCount;
+    }
+
+    public boolean isBust() {
+        return total > BLACKJACK;
+    }
+
+    public boolean isBlackjack() {
+        return cardCount == 2 && total == BLACKJACK;
+    }
+
+    @Override
+    public String toString() {
+        return "HandState{total=" + total + ", soft=" + isSoft() + ", cards=" + cardCount + "}";
+    }
+}
@@ -0,0 +1,140 @@
+package cat.itacademy.s05.t01.blackjack.util;
+
+import cat.itacademy.s05.t01.blackjack.model.mongo.Move;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.SplittableRandom;
+
+/**
+ * Plays hands in memory with the same rules as the game service: the player
+ * draws until the strategy stands or the hand busts, then the dealer draws
+ * below 17. Hands are split into fixed-size chunks, each with its own shoe
+ * and its own random generator split from the seed, so a seed gives the same
+ * result however many chunks run at once.
+ */
+public final class SimulationEngine {
+
+    static final int HANDS_PER_CHUNK = 10_000;
+
+    private SimulationEngine() {}
+
+    /** Plays every chunk on the calling thread. */
+    public static SimulationResult simulate(long hands, int decks, double penetration, Strategy strategy, long seed) {
+        SplittableRandom[] randoms = randoms(hands, seed);
+        SimulationResult result = SimulationResult.EMPTY;
+        for (int chunk = 0; chunk < randoms.length; chunk++) {
+            result = result.plus(playChunk(hands, chunk, decks, penetration, strategy, randoms[chunk]));
+        }
+        return result;
+    }
+
+    /**
+     * Plays up to {@code parallelism} chunks at a time on the given scheduler.
+     * A chunk is only started once the previous ones free a slot, so cancelling
+     * stops the run after the chunks already playing.
+     */
+    public static Mono<SimulationResult> simulate(long hands, int decks, double penetration, Strategy strategy, long seed,
+                                                  Scheduler scheduler, int parallelism) {
+        return Mono.fromCallable(() -> randoms(hands, seed))
+                .flatMapMany(randoms -> Flux.range(0, randoms.length)
+                        .flatMap(chunk -> Mono.fromCallable(
+                                        () -> playChunk(hands, chunk, decks, penetration, strategy, randoms[chunk]))
+                                .subscribeOn(scheduler), parallelism, 1))
+                .reduce(SimulationResult.EMPTY, SimulationResult::plus);
+    }
+
+    private static SplittableRandom[] randoms(long hands, long seed) {
+        int chunks = (int) ((hands + HANDS_PER_CHUNK - 1) / HANDS_PER_CHUNK);
+
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[chunks];
+        for (int i = 0; i < chunks; i++) {
+            randoms[i] = root.split();
+        }
+        return randoms;
+    }
+
+    private static SimulationResult playChunk(long hands, int chunk, int decks, double penetration, Strategy strategy,
+                                              SplittableRandom random) {
+        long chunkHands = Math.min(HANDS_PER_CHUNK, hands - (long) chunk * HANDS_PER_CHUNK);
+        return playChunk(chunkHands, new ShoeCursor(decks, penetration, random), strategy);
+    }
+
+    private static SimulationResult playChunk(long hands, ShoeCursor shoe, Strategy strategy) {
+        long wins = 0, losses = 0, pushes = 0, playerBusts = 0, dealerBusts = 0;
+
+        for (long hand = 0; hand < hands; hand++) {
+            shoe.reshuffleIfPastCut();
+
+            HandState player = HandState.EMPTY.add(shoe.draw());
+            byte dealerUpCard = shoe.draw();
+            player = player.add(shoe.draw());
+            HandState dealer = HandState.EMPTY.add(dealerUpCard).add(shoe.draw());
+
+            while (!player.isBust() && player.total() < 21 && strategy.decide(player, dealerUpCard) == Move.HIT) {
+                player = player.add(shoe.draw());
+            }
+
+            if (player.isBust()) {
+                losses++;
+                playerBusts++;
+                continue;
+            }
+
+            while (BlackjackRules.dealerMustHit(dealer)) {
+                dealer = dealer.add(shoe.draw());
+            }
+
+            if (dealer.isBust()) {
+                wins++;
+                dealerBusts++;
+            } else if (dealer.total() > player.total()) {
+                losses++;
+            } else if (dealer.total() < player.total()) {
+                wins++;
+            } else {
+                pushes++;
+            }
+        }
+
+        return new SimulationResult(hands, wins, losses, pushes, playerBusts, dealerBusts);
+    }
+
+    private static final class ShoeCursor {
+
+        private final int decks;
+        private final SplittableRandom random;
+        private final int cutCard;
+        private byte[] cards;
+        private int next;
+
+        ShoeCursor(int decks, double penetration, SplittableRandom random) {
+            this.decks = decks;
+            this.random = random;
+            this.cards = DeckFactory.createShuffledShoe(decks, random);
+            this.cutCard = (int) (cards.length * penetration);
+        }
+
+        void reshuffleIfPastCut() {
+            if (next >= cutCard) {
+                reshuffle();
+            }
+        }
+
+        byte draw() {
+            // Only a long hand dealt close to the end of a single deck gets here
+            if (next == cards.length) {
+                reshuffle();
+            }
+            return cards[next++];
+        }
+
+        private void reshuffle() {
+            cards = DeckFactory.createShuffledShoe(decks, random);
+            next = 0;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package cat.itacademy.s05.t01.blackjack.util;
+
+/**
+ * Outcome counts of simulated hands. Player busts are also counted as losses
+ * and dealer busts as wins.
+ */
+public record SimulationResult(long hands, long wins, long losses, long pushes, long playerBusts, long dealerBusts) {
+
+    public static final SimulationResult EMPTY = new SimulationResult(0, 0, 0, 0, 0, 0);
+
+    public SimulationResult plus(SimulationResult other) {
+        return new SimulationResult(
+                hands + other.hands,
+                wins + other.wins,
+                losses + other.losses,
+                pushes + other.pushes,
+                playerBusts + other.playerBusts,
+                dealerBusts + other.dealerBusts);
+    }
+
+    // Average units won per hand at even money
+    public double expectedValue() {
+        return hands == 0 ? 0 : (double) (wins - losses) / hands;
+    }
+}
@@ -0,0 +1,35 @@
+package cat.itacademy.s05.t01.blackjack.util;
+
+import cat.itacademy.s05.t01.blackjack.exception.ValidationException;
+import cat.itacademy.s05.t01.blackjack.model.mongo.Move;
+
+public enum SimulationStrategy implements Strategy {
+
+    // Plays like the dealer: hit below 17
+    MIMIC_DEALER {
+        @Override
+        public Move decide(HandState player, byte dealerUpCard) {
+            return BlackjackRules.dealerMustHit(player) ? Move.HIT : Move.STAND;
+        }
+    },
+
+    // Only hits when no card can bust the hand
+    NEVER_BUST {
+        @Override
+        public Move decide(HandState player, byte dealerUpCard) {
+            return player.total() <= 11 ? Move.HIT : Move.STAND;
+        }
+    };
+
+    public static SimulationStrategy from(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return MIMIC_DEALER;
+        }
+
+        try {
+            return SimulationStrategy.valueOf(raw.trim().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new ValidationException("Strategy is invalid");
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package cat.itacademy.s05.t01.blackjack.util;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Shares one in-flight lookup between every concurrent caller asking for the
+ * same key. The lookup is forgotten as soon as it completes, so nothing is
+ * cached: a caller arriving later starts a new one.
+ * <p>
+ * Callers receive the same instance, so only use it for values that are not
+ * modified afterwards.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+
+    public Mono<V> execute(K key, Supplier<Mono<V>> lookup) {
+        return Mono.defer(() -> inFlight.computeIfAbsent(key, k -> share(k, lookup.get())));
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private Mono<V> share(K key, Mono<V> lookup) {
+        @SuppressWarnings("unchecked")
+        Mono<V>[] shared = new Mono[1];
+        // Forgotten before the result reaches any caller, so a caller that gets it
+        // and asks again right away starts a new lookup
+        shared[0] = lookup
+                .doOnTerminate(() -> inFlight.remove(key, shared[0]))
+                .cache();
+        return shared[0];
+    }
+}
@@ -0,0 +1,13 @@
+package cat.itacademy.s05.t01.blackjack.util;
+
+import cat.itacademy.s05.t01.blackjack.model.mongo.Move;
+
+/**
+ * Decides the player's next move. Called for every decision of a simulated
+ * hand, so implementations should not allocate.
+ */
+@FunctionalInterface
+public interface Strategy {
+
+    Move decide(HandState player, byte dealerUpCard);
+}
@@ -0,0 +1,264 @@
+package cat.itacademy.s05.t01.blackjack.util;
+
+import cat.itacademy.s05.t01.blackjack.model.mongo.Move;
+
+/**
+ * Exact expected-value solver for HIT, STAND, DOUBLE and SPLIT under the game
+ * rules: no hole-card peek, even money, dealer draws below 17, double on any
+ * two cards (after a split too) and split aces get one card each. The
+ * dealer's side comes from {@link DealerProbabilities}.
+ * <p>
+ * A split is valued as two hands that each start from one card of the pair
+ * and are then played at best without splitting again, so resplits are left
+ * out of its EV and a split is only ever advised a little too seldom.
+ * <p>
+ * A composition is an {@code int[10]} of remaining card counts indexed by
+ * value: 0 is the ace, 1 to 8 are two to nine, 9 is any ten-valued card.
+ */
+public final class StrategySolver {
+
+    public static final int VALUES = 10;
+    private static final int TEN = 9;
+
+    /** No pair to split. */
+    public static final int NO_PAIR = -1;
+
+    private static final int ACE = 0;
+    private static final int LOWEST_DEALER_TOTAL = 17;
+    private static final int BLACKJACK = 21;
+
+    private StrategySolver() {}
+
+    public static int valueIndex(byte card) {
+        return Math.min(Cards.rank(card), TEN);
+    }
+
+    public static int[] shoeComposition(int decks) {
+        int[] counts = new int[VALUES];
+        for (int value = 0; value < TEN; value++) {
+            counts[value] = Cards.SUITS * decks;
+        }
+        counts[TEN] = Cards.SUITS * 4 * decks;
+        return counts;
+    }
+
+    /**
+     * Solves the total-dependent table for a full shoe: the dealer's odds are
+     * exact for the shoe without the up card, the player's draws use the
+     * same fixed odds.
+     */
+    public static StrategyTable solveTable(int decks, DealerProbabilities dealerProbabilities) {
+        StrategyTable.Builder table = StrategyTable.builder();
+        int[] shoe = shoeComposition(decks);
+        DealerProbabilities.Query dealerOdds = dealerProbabilities.newQuery();
+
+        for (int up = 0; up < VALUES; up++) {
+            int[] counts = shoe.clone();
+            counts[up]--;
+
+            double[] dealer = dealerOdds.outcomes(counts, up);
+            double[] odds = odds(counts);
+
+            // hitEv[hard][ace], filled from high totals down since hitting only goes up
+            double[][] hitEv = new double[BLACKJACK + 1][2];
+            double[][] doubleEv = new double[BLACKJACK + 1][2];
+            for (int hard = BLACKJACK; hard >= 2; hard--) {
+                for (int ace = 0; ace < 2; ace++) {
+                    double hit = 0;
+                    double doubled = 0;
+                    for (int value = 0; value < VALUES; value++) {
+                        int nextHard = hard + value + 1;
+                        int nextAce = ace == 1 || value == 0 ? 1 : 0;
+                        if (nextHard > BLACKJACK) {
+                            hit -= odds[value];
+                            doubled -= 2 * odds[value];
+                            continue;
+                        }
+                        double stand = standEv(dealer, total(nextHard, nextAce == 1));
+                        hit += odds[value] * Math.max(stand, hitEv[nextHard][nextAce]);
+                        doubled += 2 * odds[value] * stand;
+                    }
+                    hitEv[hard][ace] = hit;
+                    doubleEv[hard][ace] = doubled;
+
+                    int total = total(hard, ace == 1);
+                    double stand = standEv(dealer, total);
+                    table.hit(total, total != hard, up, hit > stand);
+                    table.doubleDown(total, total != hard, up, doubled > Math.max(stand, hit));
+                }
+            }
+
+            for (int pair = 0; pair < VALUES; pair++) {
+                int hard = 2 * (pair + 1);
+                int ace = pair == ACE ? 1 : 0;
+                double played = Math.max(standEv(dealer, total(hard, ace == 1)),
+                        Math.max(hitEv[hard][ace], doubleEv[hard][ace]));
+
+                double splitHand = 0;
+                for (int value = 0; value < VALUES; value++) {
+                    int nextHard = pair + 1 + value + 1;
+                    int nextAce = pair == ACE || value == ACE ? 1 : 0;
+                    double stand = standEv(dealer, total(nextHard, nextAce == 1));
+                    splitHand += odds[value] * (pair == ACE ? stand
+                            : Math.max(stand, Math.max(hitEv[nextHard][nextAce], doubleEv[nextHard][nextAce])));
+                }
+                table.split(pair, up, 2 * splitHand > played);
+            }
+        }
+        return table.build();
+    }
+
+    /**
+     * Best of HIT and STAND for one hand given exactly what is left in the
+     * shoe, i.e. the shoe without the player's cards and the dealer's up card.
+     */
+    public static Move bestMove(int[] remaining, int total, boolean soft, int dealerUp,
+                                DealerProbabilities dealerProbabilities) {
+        return bestMove(remaining, total, soft, dealerUp, false, NO_PAIR, dealerProbabilities);
+    }
+
+    /**
+     * Best move for one hand given exactly what is left in the shoe, also
+     * weighing a double when {@code canDouble} and a split of the pair of
+     * value {@code pair} unless it is {@link #NO_PAIR}.
+     */
+    public static Move bestMove(int[] remaining, int total, boolean soft, int dealerUp,
+                                boolean canDouble, int pair, DealerProbabilities dealerProbabilities) {
+        if (total >= BLACKJACK) {
+            return Move.STAND;
+        }
+
+        // Every stand decision below shares the dealer states of one query
+        int[] counts = remaining.clone();
+        DealerProbabilities.Query dealerOdds = dealerProbabilities.newQuery();
+        int hard = soft ? total - 10 : total;
+        double stand = standEv(dealerOdds.outcomes(counts, dealerUp), total);
+        double hit = hitEv(counts, hard, soft, dealerUp, dealerOdds);
+        double doubled = canDouble ? doubleEv(counts, hard, soft, dealerUp, dealerOdds) : Double.NEGATIVE_INFINITY;
+        double split = pair != NO_PAIR ? 2 * splitHandEv(counts, pair, dealerUp, dealerOdds) : Double.NEGATIVE_INFINITY;
+
+        double best = Math.max(stand, Math.max(hit, Math.max(doubled, split)));
+        if (best == split) {
+            return Move.SPLIT;
+        }
+        if (best == doubled) {
+            return Move.DOUBLE;
+        }
+        return hit > stand ? Move.HIT : Move.STAND;
+    }
+
+    // One card at twice the stake
+    private static double doubleEv(int[] counts, int hard, boolean ace, int dealerUp,
+                                   DealerProbabilities.Query dealerOdds) {
+        int left = sum(counts);
+        double ev = 0;
+
+        for (int value = 0; value < VALUES; value++) {
+            if (counts[value] == 0) {
+                continue;
+            }
+
+            double p = (double) counts[value] / left;
+            int nextHard = hard + value + 1;
+            if (nextHard > BLACKJACK) {
+                ev -= 2 * p;
+                continue;
+            }
+
+            counts[value]--;
+            ev += 2 * p * standEv(dealerOdds.outcomes(counts, dealerUp), total(nextHard, ace || value == ACE));
+            counts[value]++;
+        }
+        return ev;
+    }
+
+    // One of the two hands: the other hand's cards are not taken out of the shoe
+    private static double splitHandEv(int[] counts, int pair, int dealerUp, DealerProbabilities.Query dealerOdds) {
+        int left = sum(counts);
+        double ev = 0;
+
+        for (int value = 0; value < VALUES; value++) {
+            if (counts[value] == 0) {
+                continue;
+            }
+
+            double p = (double) counts[value] / left;
+            int hard = pair + 1 + value + 1;
+            boolean ace = pair == ACE || value == ACE;
+            counts[value]--;
+            double best = standEv(dealerOdds.outcomes(counts, dealerUp), total(hard, ace));
+            // Split aces get one card each
+            if (pair != ACE && total(hard, ace) < BLACKJACK) {
+                best = Math.max(best, Math.max(hitEv(counts, hard, ace, dealerUp, dealerOdds),
+                        doubleEv(counts, hard, ace, dealerUp, dealerOdds)));
+            }
+            counts[value]++;
+
+            ev += p * best;
+        }
+        return ev;
+    }
+
+    private static double hitEv(int[] counts, int hard, boolean ace, int dealerUp,
+                                DealerProbabilities.Query dealerOdds) {
+        int left = sum(counts);
+        double ev = 0;
+
+        for (int value = 0; value < VALUES; value++) {
+            if (counts[value] == 0) {
+                continue;
+            }
+
+            double p = (double) counts[value] / left;
+            int nextHard = hard + value + 1;
+            if (nextHard > BLACKJACK) {
+                ev -= p;
+                continue;
+            }
+
+            boolean nextAce = ace || value == 0;
+            int total = total(nextHard, nextAce);
+            counts[value]--;
+            double stand = standEv(dealerOdds.outcomes(counts, dealerUp), total);
+            double best = total == BLACKJACK ? stand : Math.max(stand, hitEv(counts, nextHard, nextAce, dealerUp, dealerOdds));
+            counts[value]++;
+
+            ev += p * best;
+        }
+        return ev;
+    }
+
+    private static double standEv(double[] dealer, int total) {
+        double ev = dealer[DealerProbabilities.BUST];
+        for (int outcome = 0; outcome < DealerProbabilities.BUST; outcome++) {
+            int dealerTotal = LOWEST_DEALER_TOTAL + outcome;
+            if (dealerTotal < total) {
+                ev += dealer[outcome];
+            } else if (dealerTotal > total) {
+                ev -= dealer[outcome];
+            }
+        }
+        return ev;
+    }
+
+    private static double[] odds(int[] counts) {
+        int left = sum(counts);
+        double[] odds = new double[VALUES];
+        for (int value = 0; value < VALUES; value++) {
+            odds[value] = (double) counts[value] / left;
+        }
+        return odds;
+    }
+
+    private static int total(int hard, boolean ace) {
+        return ace && hard + 10 <= BLACKJACK ? hard + 10 : hard;
+    }
+
+    private static int sum(int[] counts) {
+        int sum = 0;
+        for (int count : counts) {
+            sum += count;
+        }
+        return sum;
+    }
+}
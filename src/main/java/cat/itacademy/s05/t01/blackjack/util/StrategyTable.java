@@ -0,0 +1,86 @@
+package cat.itacademy.s05.t01.blackjack.util;
+
+import cat.itacademy.s05.t01.blackjack.model.mongo.Move;
+
+/**
+ * Precomputed decisions indexed by player total, soft or hard, and dealer
+ * up-card value: whether to hit, whether to double a two-card hand, and
+ * whether to split a pair, by the value of its cards. Lookups are a few
+ * array reads.
+ */
+public final class StrategyTable implements Strategy {
+
+    private static final int TOTALS = 22;
+    private static final int SIZE = 2 * TOTALS * StrategySolver.VALUES;
+
+    private final boolean[] hit;
+    private final boolean[] doubleDown;
+    private final boolean[] split;
+
+    private StrategyTable(boolean[] hit, boolean[] doubleDown, boolean[] split) {
+        this.hit = hit;
+        this.doubleDown = doubleDown;
+        this.split = split;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public Move decide(HandState player, byte dealerUpCard) {
+        return lookup(player.total(), player.isSoft(), StrategySolver.valueIndex(dealerUpCard));
+    }
+
+    /** HIT or STAND, for hands that can neither double nor split. */
+    public Move lookup(int total, boolean soft, int dealerUp) {
+        if (total >= TOTALS) {
+            return Move.STAND;
+        }
+        return hit[index(total, soft, dealerUp)] ? Move.HIT : Move.STAND;
+    }
+
+    /**
+     * Any of the four moves. {@code pair} is the value index of a pair that can
+     * be split, or {@link StrategySolver#NO_PAIR}.
+     */
+    public Move lookup(int total, boolean soft, int dealerUp, boolean canDouble, int pair) {
+        if (pair != StrategySolver.NO_PAIR && split[pair * StrategySolver.VALUES + dealerUp]) {
+            return Move.SPLIT;
+        }
+        if (canDouble && total < TOTALS && doubleDown[index(total, soft, dealerUp)]) {
+            return Move.DOUBLE;
+        }
+        return lookup(total, soft, dealerUp);
+    }
+
+    private static int index(int total, boolean soft, int dealerUp) {
+        return ((soft ? TOTALS : 0) + total) * StrategySolver.VALUES + dealerUp;
+    }
+
+    static final class Builder {
+
+        private final boolean[] hit = new boolean[SIZE];
+        private final boolean[] doubleDown = new boolean[SIZE];
+        private final boolean[] split = new boolean[StrategySolver.VALUES * StrategySolver.VALUES];
+
+        Builder hit(int total, boolean soft, int dealerUp, boolean hit) {
+            this.hit[index(total, soft, dealerUp)] = hit;
+            return this;
+        }
+
+        Builder doubleDown(int total, boolean soft, int dealerUp, boolean doubleDown) {
+            this.doubleDown[index(total, soft, dealerUp)] = doubleDown;
+            return this;
+        }
+
+        Builder split(int pair, int dealerUp, boolean split) {
+            this.split[pair * StrategySolver.VALUES + dealerUp] = split;
+            return this;
+        }
+
+        StrategyTable build() {
+            return new StrategyTable(hit.clone(), doubleDown.clone(), split.clone());
+        }
+    }
+}
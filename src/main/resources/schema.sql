@@ -3,5 +3,10 @@ CREATE TABLE IF NOT EXISTS players (
     name VARCHAR(255),
     games_played INT DEFAULT 0,
     games_won INT DEFAULT 0,
-    games_lost INT DEFAULT 0
+    games_lost INT DEFAULT 0,
+    win_rate DOUBLE DEFAULT 0,
+    updated_at TIMESTAMP(3) DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    UNIQUE INDEX uk_players_name (name),
+    INDEX idx_players_ranking (games_won DESC, win_rate DESC, id),
+    INDEX idx_players_updated_at (updated_at)
 );
@@ -0,0 +1,92 @@
+package cat.itacademy.s05.t01.blackjack.config;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionId;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConnectionPoolConfigTest {
+
+    private MeterRegistry registry;
+    private ConnectionPool pool;
+    private ConnectionFactory connectionFactory;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("meterRegistry", registry);
+
+        pool = new ConnectionPool(ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get("r2dbc:h2:mem:///warmup;DB_CLOSE_DELAY=-1"))
+                .initialSize(3)
+                .maxSize(5)
+                .build());
+        connectionFactory = (ConnectionFactory) ConnectionPoolConfig
+                .timedConnectionPool(beans.getBeanProvider(MeterRegistry.class))
+                .postProcessAfterInitialization(pool, "connectionFactory");
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.dispose();
+    }
+
+    @Test
+    void connectionPoolShouldBeWrappedToTimeAcquisition() {
+        StepVerifier.create(Mono.usingWhen(connectionFactory.create(), connection -> Mono.just(1), Connection::close))
+                .expectNext(1)
+                .verifyComplete();
+
+        assertThat(connectionFactory).isInstanceOf(TimedConnectionFactory.class);
+        assertThat(registry.get(TimedConnectionFactory.ACQUIRE).tag("outcome", "success").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void warmUpShouldFillThePoolBehindTheTimedFactory() {
+        ConnectionWarmup warmup = new ConnectionWarmup(connectionFactory, null, properties());
+
+        StepVerifier.create(warmup.warmUpMysql())
+                .expectNext(3)
+                .verifyComplete();
+
+        assertThat(pool.getMetrics().orElseThrow().idleSize()).isEqualTo(3);
+    }
+
+    @Test
+    void mongoCheckoutsShouldBeTimed() {
+        ConnectionPoolConfig.CheckoutTimer listener = new ConnectionPoolConfig.CheckoutTimer(registry);
+        ServerId server = new ServerId(new ClusterId(), new ServerAddress());
+
+        listener.connectionCheckedOut(new ConnectionCheckedOutEvent(new ConnectionId(server), 1,
+                TimeUnit.MILLISECONDS.toNanos(4)));
+
+        assertThat(registry.get(ConnectionPoolConfig.MONGO_CHECKOUT).timer().totalTime(TimeUnit.MILLISECONDS))
+                .isEqualTo(4);
+    }
+
+    private static PoolProperties properties() {
+        return new PoolProperties(true, Duration.ofSeconds(10),
+                new PoolProperties.Mongo(100, 10, Duration.ofSeconds(2), 2, Duration.ofMinutes(10)));
+    }
+}
@@ -0,0 +1,70 @@
+package cat.itacademy.s05.t01.blackjack.config;
+
+import cat.itacademy.s05.t01.blackjack.model.mongo.Game;
+import cat.itacademy.s05.t01.blackjack.model.mongo.GameStatus;
+import cat.itacademy.s05.t01.blackjack.util.Cards;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MongoConfigTest {
+
+    private MappingMongoConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        MongoCustomConversions conversions = new MongoConfig().mongoCustomConversions();
+
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+    }
+
+    @Test
+    void read_ShouldDecodeLegacyStringCards() {
+        Document legacy = new Document("_id", "g1")
+                .append("playerId", 1L)
+                .append("playerHand", List.of("AH", "10D"))
+                .append("dealerHand", List.of("KS", "7C"))
+                .append("deck", List.of("2H", "QD"))
+                .append("status", "IN_PROGRESS");
+
+        Game game = converter.read(Game.class, legacy);
+
+        assertThat(Cards.labels(game.getPlayerHand())).containsExactly("AH", "10D");
+        assertThat(Cards.labels(game.getDealerHand())).containsExactly("KS", "7C");
+        assertThat(Cards.labels(game.getDeck())).containsExactly("2H", "QD");
+        assertThat(game.getStatus()).isEqualTo(GameStatus.IN_PROGRESS);
+    }
+
+    @Test
+    void writeThenRead_ShouldStoreCardsAsBytes() {
+        Game game = Game.builder()
+                .id("g2")
+                .playerId(1L)
+                .playerHand(Cards.encodeAll(List.of("AS", "9H")))
+                .dealerHand(Cards.encodeAll(List.of("5C", "JD")))
+                .deck(Cards.encodeAll(List.of("3S")))
+                .status(GameStatus.IN_PROGRESS)
+                .build();
+
+        Document document = new Document();
+        converter.write(game, document);
+
+        assertThat(document.get("playerHand")).isInstanceOf(byte[].class);
+        assertThat(Cards.labels(converter.read(Game.class, document).getPlayerHand()))
+                .containsExactly("AS", "9H");
+    }
+}
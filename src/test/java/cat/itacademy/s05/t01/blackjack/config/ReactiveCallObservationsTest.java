@@ -0,0 +1,124 @@
+package cat.itacademy.s05.t01.blackjack.config;
+
+import cat.itacademy.s05.t01.blackjack.dto.PlayerResponse;
+import cat.itacademy.s05.t01.blackjack.exception.NotFoundException;
+import cat.itacademy.s05.t01.blackjack.model.mysql.Player;
+import cat.itacademy.s05.t01.blackjack.repository.mysql.PlayerRepository;
+import cat.itacademy.s05.t01.blackjack.service.PlayerService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReactiveCallObservationsTest {
+
+    private MeterRegistry registry;
+    private final List<Observation.Context> started = new CopyOnWriteArrayList<>();
+    private ReactiveCallObservations metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        ObservationRegistry observations = ObservationRegistry.create();
+        observations.observationConfig()
+                .observationHandler(new DefaultMeterObservationHandler(registry))
+                .observationHandler(new ObservationHandler<>() {
+                    @Override
+                    public void onStart(Observation.Context context) {
+                        started.add(context);
+                    }
+
+                    @Override
+                    public boolean supportsContext(Observation.Context context) {
+                        return true;
+                    }
+                });
+
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("meterRegistry", registry);
+        beans.addBean("observationRegistry", observations);
+        metrics = new ReactiveCallObservations(beans.getBeanProvider(ObservationRegistry.class),
+                beans.getBeanProvider(MeterRegistry.class));
+    }
+
+    @Test
+    void servicesShouldBeTimedFromSubscriptionByOutcome() {
+        PlayerService service = mock(PlayerService.class);
+        when(service.updatePlayerName(eq(1L), any())).thenReturn(Mono.just(PlayerResponse.builder().id(1L).build()));
+        when(service.updatePlayerName(eq(2L), any())).thenReturn(Mono.error(new NotFoundException("Player not found")));
+
+        PlayerService timed = (PlayerService) metrics.postProcessAfterInitialization(service, "playerService");
+        Mono<PlayerResponse> found = timed.updatePlayerName(1L, null);
+
+        assertThat(registry.find(ReactiveCallObservations.SERVICE_CALLS).timers()).isEmpty();
+
+        StepVerifier.create(found).expectNextCount(1).verifyComplete();
+        StepVerifier.create(timed.updatePlayerName(2L, null)).expectError(NotFoundException.class).verify();
+
+        assertThat(registry.get(ReactiveCallObservations.SERVICE_CALLS)
+                .tags("service", "PlayerService", "method", "updatePlayerName", "outcome", "success")
+                .timer().count()).isEqualTo(1);
+        assertThat(registry.get(ReactiveCallObservations.SERVICE_CALLS)
+                .tags("service", "PlayerService", "method", "updatePlayerName", "outcome", "error")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void servicesShouldReportCallsInFlight() {
+        PlayerService service = mock(PlayerService.class);
+        Sinks.One<PlayerResponse> pending = Sinks.one();
+        when(service.updatePlayerName(eq(1L), any())).thenReturn(pending.asMono());
+
+        PlayerService timed = (PlayerService) metrics.postProcessAfterInitialization(service, "playerService");
+        StepVerifier.Step<PlayerResponse> call = StepVerifier.create(timed.updatePlayerName(1L, null)).expectSubscription();
+
+        call.then(() -> {
+                    assertThat(registry.get(ReactiveCallObservations.SERVICE_IN_FLIGHT)
+                            .tag("method", "updatePlayerName").gauge().value()).isEqualTo(1);
+                    pending.tryEmitValue(PlayerResponse.builder().id(1L).build());
+                })
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertThat(registry.get(ReactiveCallObservations.SERVICE_IN_FLIGHT)
+                .tag("method", "updatePlayerName").gauge().value()).isZero();
+    }
+
+    @Test
+    void repositoryCallsShouldBeObservedAsChildrenOfTheServiceCall() {
+        PlayerRepository repository = mock(PlayerRepository.class);
+        when(repository.findById(1L)).thenReturn(Mono.just(Player.builder().id(1L).name("Ana").build()));
+        PlayerRepository timedRepository =
+                (PlayerRepository) metrics.postProcessAfterInitialization(repository, "playerRepository");
+
+        PlayerService service = mock(PlayerService.class);
+        when(service.updatePlayerName(eq(1L), any())).thenAnswer(invocation -> timedRepository.findById(1L)
+                .map(player -> PlayerResponse.builder().id(player.getId()).name(player.getName()).build()));
+        PlayerService timed = (PlayerService) metrics.postProcessAfterInitialization(service, "playerService");
+
+        StepVerifier.create(timed.updatePlayerName(1L, null)).expectNextCount(1).verifyComplete();
+
+        assertThat(started).extracting(Observation.Context::getContextualName)
+                .containsExactly("PlayerService.updatePlayerName", "PlayerRepository.findById");
+        assertThat(started.get(1).getParentObservation().getContextView())
+                .isSameAs(started.get(0));
+        assertThat(registry.get(ReactiveCallObservations.REPOSITORY_CALLS)
+                .tags("store", "mysql", "repository", "PlayerRepository", "method", "findById")
+                .timer().count()).isEqualTo(1);
+    }
+}
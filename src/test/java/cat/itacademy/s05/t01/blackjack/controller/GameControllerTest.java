@@ -11,8 +11,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
@@ -247,6 +249,21 @@ class GameControllerTest {
                 .jsonPath("$.message").isEqualTo("Game is already finished");
     }
 
+    @Test
+    void playMove_ShouldReturn409_WhenGameIsModifiedConcurrently() {
+        when(gameService.playMove(eq("g1"), any()))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("Game g1 was modified by another request")));
+
+        webTestClient.post()
+                .uri("/g1/play")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new PlayRequestDTO("HIT"))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("CONFLICT");
+    }
+
     @Test
     void playMove_ShouldReturn400_WhenMoveIsNotAllowed() {
         when(gameService.playMove(eq("g1"), any()))
@@ -313,4 +330,27 @@ class GameControllerTest {
                 .expectStatus().isNotFound();
     }
 
+
+    @Test
+    void playBatch_ShouldStreamResultsAsNdjson() {
+        when(gameService.playBatch(any()))
+                .thenReturn(Flux.just(
+                        BatchMoveResult.builder().gameId("g1").index(0).move("HIT")
+                                .result(PlayResultDTO.builder().gameId("g1").status("IN_PROGRESS").build())
+                                .build(),
+                        BatchMoveResult.builder().gameId("g2").error("Game not found").build()));
+
+        webTestClient.post()
+                .uri("/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(List.of(
+                        new BatchMoveRequest("g1", List.of("HIT")),
+                        new BatchMoveRequest("g2", List.of("STAND"))))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(BatchMoveResult.class)
+                .hasSize(2);
+    }
 }
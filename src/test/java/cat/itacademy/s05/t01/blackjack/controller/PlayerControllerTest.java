@@ -3,6 +3,7 @@ package cat.itacademy.s05.t01.blackjack.controller;
 import cat.itacademy.s05.t01.blackjack.dto.PlayerRankingResponse;
 import cat.itacademy.s05.t01.blackjack.dto.PlayerResponse;
 import cat.itacademy.s05.t01.blackjack.dto.PlayerUpdateRequest;
+import cat.itacademy.s05.t01.blackjack.dto.RankingEvent;
 import cat.itacademy.s05.t01.blackjack.exception.GlobalExceptionHandler;
 import cat.itacademy.s05.t01.blackjack.exception.NotFoundException;
 import cat.itacademy.s05.t01.blackjack.service.PlayerService;
@@ -16,6 +17,9 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -133,7 +137,7 @@ class PlayerControllerTest {
         PlayerRankingResponse r2 = PlayerRankingResponse.builder()
                 .id(2L).name("Bob").gamesWon(9).build();
 
-        when(playerService.getRanking())
+        when(playerService.getRanking(50, null))
                 .thenReturn(Flux.just(r1, r2));
 
         webTestClient.get()
@@ -145,4 +149,39 @@ class PlayerControllerTest {
                 .jsonPath("$[0].name").isEqualTo("Alice");
     }
 
+    @Test
+    void getRanking_ShouldPassLimitAndCursor() {
+        when(playerService.getRanking(10, "abc"))
+                .thenReturn(Flux.empty());
+
+        webTestClient.get()
+                .uri("/ranking?limit=10&cursor=abc")
+                .exchange()
+                .expectStatus().isOk();
+
+        verify(playerService, times(1)).getRanking(10, "abc");
+    }
+
+    @Test
+    void streamRankingChanges_ShouldSendServerSentEvents() {
+        RankingEvent event = RankingEvent.builder()
+                .playerId(2L).name("Bob").previousRank(3).rank(1).gamesWon(9)
+                .build();
+
+        when(playerService.streamRankingChanges())
+                .thenReturn(Flux.just(event));
+
+        webTestClient.get()
+                .uri("/ranking/stream")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .returnResult(RankingEvent.class)
+                .getResponseBody()
+                .as(StepVerifier::create)
+                .assertNext(received -> assertThat(received.getRank()).isEqualTo(1))
+                .verifyComplete();
+    }
+
 }
@@ -0,0 +1,90 @@
+package cat.itacademy.s05.t01.blackjack.controller;
+
+import cat.itacademy.s05.t01.blackjack.dto.SimulationRequest;
+import cat.itacademy.s05.t01.blackjack.dto.SimulationResponse;
+import cat.itacademy.s05.t01.blackjack.exception.GlobalExceptionHandler;
+import cat.itacademy.s05.t01.blackjack.exception.TooManyRequestsException;
+import cat.itacademy.s05.t01.blackjack.service.SimulationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SimulationControllerTest {
+
+    @Mock
+    private SimulationService simulationService;
+
+    @InjectMocks
+    private SimulationController simulationController;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        webTestClient = WebTestClient
+                .bindToController(simulationController)
+                .controllerAdvice(new GlobalExceptionHandler())
+                .configureClient()
+                .baseUrl("/simulation")
+                .build();
+    }
+
+    @Test
+    void simulate_ShouldReturn200AndAggregatedStatistics() {
+        SimulationResponse response = SimulationResponse.builder()
+                .hands(1_000_000)
+                .strategy("MIMIC_DEALER")
+                .wins(410_000)
+                .losses(500_000)
+                .pushes(90_000)
+                .build();
+
+        when(simulationService.simulate(any(SimulationRequest.class)))
+                .thenReturn(Mono.just(response));
+
+        webTestClient.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new SimulationRequest(1_000_000L, 6, "MIMIC_DEALER", 42L))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.hands").isEqualTo(1_000_000)
+                .jsonPath("$.pushes").isEqualTo(90_000);
+    }
+
+    @Test
+    void simulate_ShouldReturn429_WhenTooManySimulationsAreRunning() {
+        when(simulationService.simulate(any(SimulationRequest.class)))
+                .thenReturn(Mono.error(new TooManyRequestsException("Too many simulations running, try again later")));
+
+        webTestClient.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new SimulationRequest(1_000L, 6, null, null))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @Test
+    void simulate_ShouldReturn400_WhenHandsAreMissing() {
+        webTestClient.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new SimulationRequest(null, 6, null, null))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Number of hands must be provided");
+
+        verifyNoInteractions(simulationService);
+    }
+}
@@ -0,0 +1,89 @@
+package cat.itacademy.s05.t01.blackjack.repository;
+
+import cat.itacademy.s05.t01.blackjack.model.mongo.Game;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class IndexManagerTest {
+
+    private DatabaseClient databaseClient;
+    private ReactiveIndexOperations gameIndexes;
+    private IndexManager indexManager;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient = mock(DatabaseClient.class, RETURNS_DEEP_STUBS);
+        gameIndexes = mock(ReactiveIndexOperations.class);
+        ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+        when(mongoTemplate.indexOps(Game.class)).thenReturn(gameIndexes);
+
+        indexManager = new IndexManager(databaseClient, mongoTemplate);
+    }
+
+    private static IndexInfo index(String name, String... fields) {
+        return new IndexInfo(List.of(fields).stream()
+                .map(field -> IndexField.create(field, Sort.Direction.ASC))
+                .toList(), name, false, false, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void mockPlayerIndexes(String... names) {
+        when(databaseClient.sql(anyString()).map(any(Function.class)).all())
+                .thenReturn(Flux.just((Object[]) names));
+    }
+
+    @Test
+    void ensureIndexes_ShouldOnlyCreateTheMissingOnes() {
+        mockPlayerIndexes("PRIMARY", IndexManager.PLAYERS_NAME, IndexManager.PLAYERS_RANKING,
+                IndexManager.PLAYERS_UPDATED_AT);
+        when(gameIndexes.getIndexInfo())
+                .thenReturn(Flux.just(index("_id_", "_id"), index(IndexManager.GAMES_PLAYER_STATUS, "playerId", "status")))
+                .thenReturn(Flux.just(index("_id_", "_id"), index(IndexManager.GAMES_PLAYER_STATUS, "playerId", "status"),
+                        index(IndexManager.GAMES_IN_PROGRESS, "status")));
+        when(gameIndexes.createIndex(any())).thenReturn(Mono.just(IndexManager.GAMES_IN_PROGRESS));
+
+        StepVerifier.create(indexManager.ensureIndexes())
+                .assertNext(statuses -> assertThat(statuses).allMatch(IndexManager.IndexStatus::present).hasSize(5))
+                .verifyComplete();
+
+        ArgumentCaptor<Index> created = ArgumentCaptor.forClass(Index.class);
+        verify(gameIndexes, times(1)).createIndex(created.capture());
+        assertThat(created.getValue().getIndexOptions())
+                .containsEntry("name", IndexManager.GAMES_IN_PROGRESS)
+                .containsEntry("partialFilterExpression", new Document("status", "IN_PROGRESS"));
+        verify(databaseClient, never()).sql(startsWith("ALTER"));
+    }
+
+    @Test
+    void check_ShouldReportMissingIndexes() {
+        mockPlayerIndexes("PRIMARY", "idx_players_ranking", "idx_players_updated_at");
+        when(gameIndexes.getIndexInfo()).thenReturn(Flux.just(index("_id_", "_id")));
+
+        StepVerifier.create(indexManager.check())
+                .assertNext(statuses -> assertThat(statuses)
+                        .filteredOn(status -> !status.present())
+                        .extracting(IndexManager.IndexStatus::name)
+                        .containsExactly(IndexManager.PLAYERS_NAME, IndexManager.GAMES_PLAYER_STATUS,
+                                IndexManager.GAMES_IN_PROGRESS))
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,238 @@
+package cat.itacademy.s05.t01.blackjack.repository;
+
+import cat.itacademy.s05.t01.blackjack.model.mysql.Player;
+import cat.itacademy.s05.t01.blackjack.repository.mysql.PlayerRepository;
+import cat.itacademy.s05.t01.blackjack.repository.mysql.PlayerResultRepository;
+import cat.itacademy.s05.t01.blackjack.repository.mysql.PlayerUpsertRepository;
+import cat.itacademy.s05.t01.blackjack.repository.mysql.PlayerUpsertRepositoryImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataR2dbcTest(properties = {
+        "spring.r2dbc.url=r2dbc:h2:mem:///players;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password="
+})
+class PlayerRepositoryTest {
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void setUp() {
+        playerRepository.deleteAll().block();
+    }
+
+    private Player savePlayer(String name) {
+        return playerRepository.save(Player.builder().name(name).build()).block();
+    }
+
+    @Test
+    void recordResult_ShouldIncrementCountersInOneStatement() {
+        Player player = savePlayer("Alice");
+
+        StepVerifier.create(playerRepository.recordResult(player.getId(), 1, 0))
+                .expectNext(1)
+                .verifyComplete();
+
+        StepVerifier.create(playerRepository.findById(player.getId()))
+                .assertNext(p -> {
+                    assertThat(p.getGamesPlayed()).isEqualTo(1);
+                    assertThat(p.getGamesWon()).isEqualTo(1);
+                    assertThat(p.getGamesLost()).isZero();
+                    assertThat(p.getWinRate()).isEqualTo(1.0);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void recordResult_ShouldStoreTheWinRateTheLeaderboardComputes() {
+        Player player = savePlayer("Alice");
+        playerRepository.recordResult(player.getId(), 1, 0).block();
+        playerRepository.recordResult(player.getId(), 0, 1).block();
+        playerRepository.recordResult(player.getId(), 0, 0).block();
+
+        // Ranking cursors compare against this value, so it must be the same double
+        StepVerifier.create(playerRepository.findById(player.getId()))
+                .assertNext(p -> assertThat(p.getWinRate()).isEqualTo(1 * 1.0 / 3))
+                .verifyComplete();
+
+        StepVerifier.create(playerRepository.findRankingAfter(1, 1 * 1.0 / 3, 0L, 10))
+                .assertNext(p -> assertThat(p.getId()).isEqualTo(player.getId()))
+                .verifyComplete();
+        StepVerifier.create(playerRepository.findRankingAfter(1, 1 * 1.0 / 3, player.getId(), 10))
+                .verifyComplete();
+    }
+
+    @Test
+    void recordResult_ShouldNotLoseIncrements_WhenGamesFinishInParallel() {
+        Player player = savePlayer("Bob");
+        int games = 600;
+
+        // Win, lose, tie in turn: 200 of each
+        Flux.range(0, games)
+                .parallel(16)
+                .runOn(Schedulers.parallel())
+                .flatMap(i -> playerRepository.recordResult(player.getId(), i % 3 == 0 ? 1 : 0, i % 3 == 1 ? 1 : 0))
+                .sequential()
+                .blockLast();
+
+        StepVerifier.create(playerRepository.findById(player.getId()))
+                .assertNext(p -> {
+                    assertThat(p.getGamesPlayed()).isEqualTo(games);
+                    assertThat(p.getGamesWon()).isEqualTo(games / 3);
+                    assertThat(p.getGamesLost()).isEqualTo(games / 3);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void save_ShouldRejectASecondPlayerWithTheSameName() {
+        savePlayer("Alice");
+
+        StepVerifier.create(playerRepository.save(Player.builder().name("Alice").build()))
+                .expectError(DataIntegrityViolationException.class)
+                .verify();
+    }
+
+    @Test
+    void rename_ShouldOnlyWriteTheName() {
+        Player stale = savePlayer("Alice");
+        savePlayer("Bob");
+        // Recorded after the player was read for the rename
+        playerRepository.recordResult(stale.getId(), 1, 0).block();
+
+        StepVerifier.create(playerRepository.rename(stale.getId(), "Alicia"))
+                .expectNext(1)
+                .verifyComplete();
+        StepVerifier.create(playerRepository.findById(stale.getId()))
+                .assertNext(player -> {
+                    assertThat(player.getName()).isEqualTo("Alicia");
+                    assertThat(player.getGamesPlayed()).isEqualTo(1);
+                    assertThat(player.getGamesWon()).isEqualTo(1);
+                })
+                .verifyComplete();
+        StepVerifier.create(playerRepository.rename(stale.getId(), "Bob"))
+                .expectError(DataIntegrityViolationException.class)
+                .verify();
+    }
+
+    @Test
+    void findOrCreateIdByName_ShouldCreateThePlayerOnlyOnce() {
+        Player alice = savePlayer("Alice");
+
+        StepVerifier.create(playerRepository.findOrCreateIdByName("Alice"))
+                .expectNext(alice.getId())
+                .verifyComplete();
+
+        Long bob = playerRepository.findOrCreateIdByName("Bob").block();
+
+        StepVerifier.create(playerRepository.findOrCreateIdByName("Bob"))
+                .expectNext(bob)
+                .verifyComplete();
+        StepVerifier.create(playerRepository.findById(bob))
+                .assertNext(player -> {
+                    assertThat(player.getName()).isEqualTo("Bob");
+                    assertThat(player.getGamesPlayed()).isZero();
+                })
+                .verifyComplete();
+        StepVerifier.create(playerRepository.count())
+                .expectNext(2L)
+                .verifyComplete();
+    }
+
+    @Test
+    void findOrCreateIdByName_ShouldFindBeforeInserting_WhenNamesAreNotUnique() {
+        databaseClient.sql("ALTER TABLE players DROP CONSTRAINT " + IndexManager.PLAYERS_NAME).then().block();
+        try {
+            Player first = savePlayer("Alice");
+            savePlayer("Alice");
+            PlayerUpsertRepository players = new PlayerUpsertRepositoryImpl(databaseClient);
+
+            StepVerifier.create(players.findOrCreateIdByName("Alice"))
+                    .expectNext(first.getId())
+                    .verifyComplete();
+            Long bob = players.findOrCreateIdByName("Bob").block();
+            StepVerifier.create(players.findOrCreateIdByName("Bob"))
+                    .expectNext(bob)
+                    .verifyComplete();
+            StepVerifier.create(playerRepository.count())
+                    .expectNext(3L)
+                    .verifyComplete();
+        } finally {
+            playerRepository.deleteAll().block();
+            databaseClient.sql("ALTER TABLE players ADD CONSTRAINT " + IndexManager.PLAYERS_NAME + " UNIQUE (name)")
+                    .then()
+                    .block();
+        }
+    }
+
+    @Test
+    void recordResults_ShouldSettleSeveralPlayersInOneStatement() {
+        Player alice = savePlayer("Alice");
+        Player bob = savePlayer("Bob");
+        Player carol = savePlayer("Carol");
+
+        StepVerifier.create(playerRepository.recordResults(List.of(
+                        new PlayerResultRepository.Result(alice.getId(), 1, 0),
+                        new PlayerResultRepository.Result(bob.getId(), 0, 1))))
+                .expectNext(2L)
+                .verifyComplete();
+
+        StepVerifier.create(playerRepository.findAll().collectMap(Player::getName))
+                .assertNext(players -> {
+                    assertThat(players.get("Alice").getGamesWon()).isEqualTo(1);
+                    assertThat(players.get("Alice").getWinRate()).isEqualTo(1.0);
+                    assertThat(players.get("Bob").getGamesLost()).isEqualTo(1);
+                    assertThat(players.get("Bob").getGamesPlayed()).isEqualTo(1);
+                    assertThat(players.get("Carol").getGamesPlayed()).isZero();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void findRanking_ShouldPageByWinsThenWinRateThenId() {
+        Player alice = savePlayer("Alice");  // 2 won of 2
+        Player bob = savePlayer("Bob");      // 2 won of 3
+        Player carol = savePlayer("Carol");  // 2 won of 3
+        Player dave = savePlayer("Dave");    // 1 won of 1
+        Flux.concat(
+                playerRepository.recordResult(alice.getId(), 1, 0),
+                playerRepository.recordResult(alice.getId(), 1, 0),
+                playerRepository.recordResult(bob.getId(), 1, 0),
+                playerRepository.recordResult(bob.getId(), 1, 0),
+                playerRepository.recordResult(bob.getId(), 0, 1),
+                playerRepository.recordResult(carol.getId(), 0, 1),
+                playerRepository.recordResult(carol.getId(), 1, 0),
+                playerRepository.recordResult(carol.getId(), 1, 0),
+                playerRepository.recordResult(dave.getId(), 1, 0)
+        ).blockLast();
+
+        Player lastOfFirstPage = playerRepository.findRanking(2)
+                .map(Player::getName)
+                .collectList()
+                .doOnNext(names -> assertThat(names).containsExactly("Alice", "Bob"))
+                .then(playerRepository.findById(bob.getId()))
+                .block();
+
+        StepVerifier.create(playerRepository.findRankingAfter(
+                        lastOfFirstPage.getGamesWon(), lastOfFirstPage.getWinRate(), lastOfFirstPage.getId(), 2)
+                        .map(Player::getName))
+                .expectNext("Carol", "Dave")
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,57 @@
+package cat.itacademy.s05.t01.blackjack.repository;
+
+import cat.itacademy.s05.t01.blackjack.model.mysql.Player;
+import cat.itacademy.s05.t01.blackjack.repository.mysql.PlayerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataR2dbcTest(properties = {
+        "spring.r2dbc.url=r2dbc:h2:mem:///migration;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password="
+})
+class SchemaMigrationTest {
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Test
+    void migrateWinRate_ShouldAddAndFillTheColumn_OnATableCreatedWithoutIt() {
+        // The table as schema.sql created it before win_rate was declared
+        databaseClient.sql("DROP INDEX IF EXISTS " + IndexManager.PLAYERS_RANKING).then().block();
+        databaseClient.sql("ALTER TABLE players DROP COLUMN win_rate").then().block();
+        databaseClient.sql("DROP INDEX IF EXISTS " + IndexManager.PLAYERS_UPDATED_AT).then().block();
+        databaseClient.sql("ALTER TABLE players DROP COLUMN updated_at").then().block();
+        databaseClient.sql("""
+                        INSERT INTO players (name, games_played, games_won, games_lost)
+                        VALUES ('Alice', 3, 1, 2), ('Bob', 0, 0, 0)
+                        """)
+                .then()
+                .block();
+
+        SchemaMigration migration = new SchemaMigration(databaseClient);
+        StepVerifier.create(migration.migrateWinRate().then(migration.migrateUpdatedAt())).verifyComplete();
+        // Running again changes nothing
+        StepVerifier.create(migration.migrateWinRate().then(migration.migrateUpdatedAt())).verifyComplete();
+
+        StepVerifier.create(playerRepository.findAll().collectMap(Player::getName))
+                .assertNext(players -> {
+                    assertThat(players.get("Alice").getWinRate()).isEqualTo(1 * 1.0 / 3);
+                    assertThat(players.get("Bob").getWinRate()).isZero();
+                })
+                .verifyComplete();
+        StepVerifier.create(playerRepository.findUpdatedSince(LocalDateTime.now().minusHours(1)).count())
+                .expectNext(2L)
+                .verifyComplete();
+    }
+}
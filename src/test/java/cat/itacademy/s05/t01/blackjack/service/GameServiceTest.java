@@ -1,5 +1,6 @@
 package cat.itacademy.s05.t01.blackjack.service;
 
+import cat.itacademy.s05.t01.blackjack.dto.BatchMoveRequest;
 import cat.itacademy.s05.t01.blackjack.dto.NewGameRequest;
 import cat.itacademy.s05.t01.blackjack.dto.PlayRequestDTO;
 import cat.itacademy.s05.t01.blackjack.exception.InvalidMoveException;
@@ -7,17 +8,28 @@ import cat.itacademy.s05.t01.blackjack.exception.NotFoundException;
 import cat.itacademy.s05.t01.blackjack.exception.ValidationException;
 import cat.itacademy.s05.t01.blackjack.model.mongo.Game;
 import cat.itacademy.s05.t01.blackjack.model.mongo.GameStatus;
+import cat.itacademy.s05.t01.blackjack.model.mongo.HandStatus;
+import cat.itacademy.s05.t01.blackjack.model.mongo.Move;
+import cat.itacademy.s05.t01.blackjack.model.mongo.PlayerHand;
+import cat.itacademy.s05.t01.blackjack.model.mongo.Shoe;
 import cat.itacademy.s05.t01.blackjack.model.mysql.Player;
 import cat.itacademy.s05.t01.blackjack.repository.mongo.GameReactiveRepository;
 import cat.itacademy.s05.t01.blackjack.repository.mysql.PlayerRepository;
+import cat.itacademy.s05.t01.blackjack.util.BlackjackRules;
+import cat.itacademy.s05.t01.blackjack.util.Cards;
+import cat.itacademy.s05.t01.blackjack.util.HandState;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -32,6 +44,24 @@ class GameServiceTest {
     @Mock
     private GameReactiveRepository gameRepository;
 
+    @Mock
+    private ShoePool shoePool;
+
+    @Mock
+    private Leaderboard leaderboard;
+
+    @Mock
+    private StrategyAdvisor strategyAdvisor;
+
+    @Mock
+    private GameStateCache gameCache;
+
+    @Mock
+    private GameMetrics gameMetrics;
+
+    @Mock
+    private PlayerIdCache playerIds;
+
     @InjectMocks
     private GameServiceImpl gameService;
 
@@ -40,15 +70,18 @@ class GameServiceTest {
     @BeforeEach
     void setUp() {
         closeable = MockitoAnnotations.openMocks(this);
+
+        when(shoePool.reserve())
+                .thenReturn(Mono.just(new ShoePool.Placement(mockShoe(), 0, 8)));
     }
 
-    private Player mockPlayer(long id, String name) {
-        return Player.builder()
-                .id(id)
-                .name(name)
-                .gamesPlayed(0)
-                .gamesWon(0)
-                .gamesLost(0)
+    private Shoe mockShoe() {
+        return Shoe.builder()
+                .id("shoe-1")
+                .decks(1)
+                .cards(Cards.encodeAll(List.of(
+                        "10H", "9C", "8D", "7S", "5H", "4D", "3C", "2S", "KH", "QD")))
+                .cutCard(8)
                 .build();
     }
 
@@ -62,9 +95,9 @@ class GameServiceTest {
         return Game.builder()
                 .id(id)
                 .playerId(1L)
-                .playerHand(new ArrayList<>(player))
-                .dealerHand(new ArrayList<>(dealer))
-                .deck(new ArrayList<>(deck))
+                .playerHand(Cards.encodeAll(player))
+                .dealerHand(Cards.encodeAll(dealer))
+                .deck(Cards.encodeAll(deck))
                 .status(status)
                 .build();
     }
@@ -74,20 +107,54 @@ class GameServiceTest {
                 .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
     }
 
-    private void mockPlayerRepo() {
-        when(playerRepository.findById(anyLong()))
-                .thenReturn(Mono.just(mockPlayer(1L, "Test")));
+    private void mockHandsSave() {
+        when(gameRepository.saveHands(any(Game.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    }
+
+    private Game shoeGame(String id, List<String> player, List<String> dealer) {
+        byte[] cards = Cards.encodeAll(player);
+        HandState state = BlackjackRules.evaluate(cards);
 
-        when(playerRepository.save(any(Player.class)))
+        List<PlayerHand> hands = new ArrayList<>();
+        hands.add(PlayerHand.builder()
+                .cards(cards)
+                .total(state.total())
+                .soft(state.isSoft())
+                .bet(1)
+                .status(HandStatus.PLAYING)
+                .build());
+
+        Game game = Game.builder()
+                .id(id)
+                .playerId(1L)
+                .hands(hands)
+                .dealerHand(Cards.encodeAll(dealer))
+                .shoeId("shoe-1")
+                .nextCardIndex(4)
+                .status(GameStatus.IN_PROGRESS)
+                .build();
+
+        when(gameRepository.findById(id)).thenReturn(Mono.just(game));
+        when(shoePool.findShoe("shoe-1")).thenReturn(Mono.just(mockShoe()));
+        return game;
+    }
+
+    private void mockFinishGame() {
+        when(gameRepository.finishGame(any(Game.class)))
                 .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
     }
 
+    private void mockPlayerRepo() {
+        when(playerRepository.recordResult(anyLong(), anyInt(), anyInt()))
+                .thenReturn(Mono.just(1));
+    }
+
     @Test
     void createNewGame_ShouldCreateGameInMongo() {
         NewGameRequest request = new NewGameRequest("Alice");
-        Player existing = mockPlayer(1L, "Alice");
 
-        when(playerRepository.findByName("Alice")).thenReturn(Mono.just(existing));
+        when(playerIds.idOf("Alice")).thenReturn(Mono.just(1L));
         when(gameRepository.save(any(Game.class)))
                 .thenAnswer(invocation -> {
                     Game g = invocation.getArgument(0);
@@ -104,69 +171,222 @@ class GameServiceTest {
     }
 
     @Test
-    void createNewGame_ShouldCreatePlayerIfNotExists() {
-        NewGameRequest request = new NewGameRequest("Bob");
+    void createNewGame_ShouldResolvePlayerThroughTheIdCache() {
+        when(playerIds.idOf("Bob")).thenReturn(Mono.just(5L));
+        mockGameSave();
 
-        when(playerRepository.findByName("Bob")).thenReturn(Mono.empty());
-        when(playerRepository.save(any(Player.class))).thenReturn(Mono.just(mockPlayer(5L, "Bob")));
+        StepVerifier.create(gameService.createNewGame(new NewGameRequest("Bob")))
+                .assertNext(res -> assertThat(res.getPlayerName()).isEqualTo("Bob"))
+                .verifyComplete();
+
+        ArgumentCaptor<Game> saved = ArgumentCaptor.forClass(Game.class);
+        verify(gameRepository).save(saved.capture());
+        assertThat(saved.getValue().getPlayerId()).isEqualTo(5L);
+        verifyNoInteractions(playerRepository);
+    }
+
+    @Test
+    void createNewGame_ShouldInitializeDeckAndHandsCorrectly() {
+        NewGameRequest request = new NewGameRequest("Dana");
+
+        when(playerIds.idOf("Dana")).thenReturn(Mono.just(20L));
 
         when(gameRepository.save(any(Game.class)))
                 .thenAnswer(invocation -> {
                     Game g = invocation.getArgument(0);
-                    g.setId("game-999");
+                    g.setId("game-init");
                     return Mono.just(g);
                 });
 
         StepVerifier.create(gameService.createNewGame(request))
                 .assertNext(res -> {
-                    assertThat(res.getPlayerName()).isEqualTo("Bob");
-                    assertThat(res.getGameId()).isEqualTo("game-999");
+                    assertThat(res.getPlayerHand()).hasSize(2);
+                    assertThat(res.getDealerHand()).hasSize(1);
+                    assertThat(res.getStatus()).isEqualTo("IN_PROGRESS");
                 })
                 .verifyComplete();
     }
 
     @Test
-    void createNewGame_ShouldNotCreatePlayerIfAlreadyExists() {
-        NewGameRequest request = new NewGameRequest("Charlie");
+    void createNewGame_ShouldDealFromReservedShoeBlock() {
+        when(playerIds.idOf("Erin")).thenReturn(Mono.just(30L));
+        when(shoePool.reserve())
+                .thenReturn(Mono.just(new ShoePool.Placement(mockShoe(), 2, 8)));
+        mockGameSave();
 
-        when(playerRepository.findByName(anyString()))
-                .thenReturn(Mono.just(mockPlayer(10L, "Charlie")));
+        StepVerifier.create(gameService.createNewGame(new NewGameRequest("Erin")))
+                .assertNext(res -> {
+                    assertThat(res.getPlayerHand()).containsExactly("8D", "5H");
+                    assertThat(res.getDealerHand()).containsExactly("7S");
+                })
+                .verifyComplete();
 
-        when(gameRepository.save(any(Game.class)))
-                .thenAnswer(invocation -> {
-                    Game g = invocation.getArgument(0);
-                    g.setId("game-456");
-                    return Mono.just(g);
-                });
+        ArgumentCaptor<Game> saved = ArgumentCaptor.forClass(Game.class);
+        verify(gameRepository).save(saved.capture());
+        assertThat(saved.getValue().getShoeId()).isEqualTo("shoe-1");
+        assertThat(saved.getValue().getNextCardIndex()).isEqualTo(6);
+        assertThat(saved.getValue().getBlockEnd()).isEqualTo(8);
+        assertThat(saved.getValue().getDeck()).isNull();
+    }
 
-        StepVerifier.create(gameService.createNewGame(request))
-                .assertNext(res -> assertThat(res.getPlayerName()).isEqualTo("Charlie"))
+    @Test
+    void playMove_HIT_ShouldDrawNextCardFromShoe() {
+        Game game = shoeGame("g5", List.of("2H", "3D"), List.of("10C", "7S"));
+        when(gameRepository.saveHand(game, 0)).thenReturn(Mono.just(game));
+
+        StepVerifier.create(gameService.playMove("g5", new PlayRequestDTO("HIT")))
+                .assertNext(res -> assertThat(res.getPlayerHand()).containsExactly("2H", "3D", "5H"))
                 .verifyComplete();
 
-        verify(playerRepository, never()).save(any(Player.class));
+        assertThat(game.getNextCardIndex()).isEqualTo(5);
+        assertThat(game.getHands().get(0).getCards()).isEqualTo(Cards.encodeAll(List.of("2H", "3D", "5H")));
+        assertThat(game.getHands().get(0).getTotal()).isEqualTo(10);
+        verify(gameRepository).saveHand(game, 0);
+        verify(gameRepository, never()).save(any(Game.class));
     }
 
     @Test
-    void createNewGame_ShouldInitializeDeckAndHandsCorrectly() {
-        NewGameRequest request = new NewGameRequest("Dana");
+    void playMove_HIT_ShouldMoveOnToAnotherBlock_BeforeAMoveThatCouldRunOut() {
+        Game game = shoeGame("g6", List.of("2H", "3D"), List.of("10C", "7S"));
+        game.setBlockEnd(5);
+        when(shoePool.extend(any(Shoe.class)))
+                .thenReturn(Mono.just(new ShoePool.Placement(mockShoe(), 8, 10)));
+        when(gameRepository.saveHand(game, 0)).thenReturn(Mono.just(game));
+
+        // 5H is all that is left of the game's block, KH is the first card of the next one
+        StepVerifier.create(gameService.playMove("g6", new PlayRequestDTO("HIT")))
+                .assertNext(res -> assertThat(res.getPlayerHand()).containsExactly("2H", "3D", "KH"))
+                .verifyComplete();
 
-        when(playerRepository.findByName("Dana"))
-                .thenReturn(Mono.just(mockPlayer(20L, "Dana")));
+        assertThat(game.getNextCardIndex()).isEqualTo(9);
+        assertThat(game.getBlockEnd()).isEqualTo(10);
+        verify(shoePool, times(1)).extend(any(Shoe.class));
+    }
 
-        when(gameRepository.save(any(Game.class)))
-                .thenAnswer(invocation -> {
-                    Game g = invocation.getArgument(0);
-                    g.setId("game-init");
-                    return Mono.just(g);
-                });
+    @Test
+    void playMove_STAND_ShouldFailInsteadOfSettling_WhenTheDealerRunsOutOfCards() {
+        Game game = shoeGame("g6b", List.of("10H", "8D"), List.of("2C", "3S"));
+        game.setBlockEnd(5);
+        when(shoePool.extend(any(Shoe.class))).thenReturn(Mono.empty());
+
+        // The dealer draws 5H to 10 and must go on, but the block is dealt
+        StepVerifier.create(gameService.playMove("g6b", new PlayRequestDTO("STAND")))
+                .expectErrorMessage("No cards left in the shoe")
+                .verify();
 
-        StepVerifier.create(gameService.createNewGame(request))
+        assertThat(game.getStatus()).isEqualTo(GameStatus.IN_PROGRESS);
+        assertThat(game.getDealerHand()).isEqualTo(Cards.encodeAll(List.of("2C", "3S")));
+        assertThat(game.getHands().get(0).getStatus()).isEqualTo(HandStatus.PLAYING);
+        assertThat(game.getNextCardIndex()).isEqualTo(4);
+        verify(gameRepository, never()).finishGame(any(Game.class));
+    }
+
+    @Test
+    void playMove_HIT_ShouldLeaveTheGameUnchanged_WhenTheShoeHasNoBlockLeft() {
+        Game game = shoeGame("g7", List.of("2H", "3D"), List.of("10C", "7S"));
+        game.setBlockEnd(4);
+        when(shoePool.extend(any(Shoe.class))).thenReturn(Mono.empty());
+
+        StepVerifier.create(gameService.playMove("g7", new PlayRequestDTO("HIT")))
+                .expectErrorMessage("No cards left in the shoe")
+                .verify();
+
+        assertThat(game.getNextCardIndex()).isEqualTo(4);
+        assertThat(game.getHands().get(0).getCards()).isEqualTo(Cards.encodeAll(List.of("2H", "3D")));
+        assertThat(game.getMoves()).isZero();
+    }
+
+    @Test
+    void playMove_SPLIT_ShouldDealOneCardToEachNewHand() {
+        Game game = shoeGame("g8", List.of("8H", "8D"), List.of("10C", "7S"));
+        mockHandsSave();
+
+        StepVerifier.create(gameService.playMove("g8", new PlayRequestDTO("SPLIT")))
                 .assertNext(res -> {
-                    assertThat(res.getPlayerHand()).hasSize(2);
-                    assertThat(res.getDealerHand()).hasSize(1);
+                    assertThat(res.getHands()).hasSize(2);
+                    assertThat(res.getHands().get(0).getCards()).containsExactly("8H", "5H");
+                    assertThat(res.getHands().get(1).getCards()).containsExactly("8D", "4D");
+                    assertThat(res.getActiveHand()).isZero();
                     assertThat(res.getStatus()).isEqualTo("IN_PROGRESS");
                 })
                 .verifyComplete();
+
+        verify(gameRepository).saveHands(game);
+    }
+
+    @Test
+    void playMove_SPLIT_ShouldLeaveTheGameUnchanged_WhenTheShoeHasOneCardLeft() {
+        Game game = shoeGame("g8b", List.of("8H", "8D"), List.of("10C", "7S"));
+        game.setBlockEnd(5);
+        when(shoePool.extend(any(Shoe.class))).thenReturn(Mono.empty());
+
+        StepVerifier.create(gameService.playMove("g8b", new PlayRequestDTO("SPLIT")))
+                .expectErrorMessage("No cards left in the shoe")
+                .verify();
+
+        assertThat(game.getNextCardIndex()).isEqualTo(4);
+        assertThat(game.getHands()).hasSize(1);
+        assertThat(game.getHands().get(0).getCards()).isEqualTo(Cards.encodeAll(List.of("8H", "8D")));
+        assertThat(game.getHands().get(0).getTotal()).isEqualTo(16);
+        assertThat(game.getMoves()).isZero();
+    }
+
+    @Test
+    void playMove_SPLIT_ShouldRejectCardsOfDifferentValue() {
+        shoeGame("g9", List.of("8H", "9D"), List.of("10C", "7S"));
+
+        StepVerifier.create(gameService.playMove("g9", new PlayRequestDTO("SPLIT")))
+                .expectError(InvalidMoveException.class)
+                .verify();
+    }
+
+    @Test
+    void playMove_DOUBLE_ShouldDrawOneCardAndSettleDoubleBet() {
+        shoeGame("g10", List.of("5C", "6D"), List.of("10C", "7S"));
+        mockFinishGame();
+        mockPlayerRepo();
+
+        // 5 + 6 + 5 = 16 against the dealer's 17
+        StepVerifier.create(gameService.playMove("g10", new PlayRequestDTO("DOUBLE")))
+                .assertNext(res -> {
+                    assertThat(res.getPlayerHand()).containsExactly("5C", "6D", "5H");
+                    assertThat(res.getStatus()).isEqualTo("PLAYER_LOSE");
+                    assertThat(res.getHands().get(0).getBet()).isEqualTo(2);
+                    assertThat(res.getNetUnits()).isEqualTo(-2.0);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void playMove_SURRENDER_ShouldLoseHalfTheBet() {
+        shoeGame("g11", List.of("10H", "6D"), List.of("10C", "7S"));
+        mockFinishGame();
+        mockPlayerRepo();
+
+        StepVerifier.create(gameService.playMove("g11", new PlayRequestDTO("SURRENDER")))
+                .assertNext(res -> {
+                    assertThat(res.getStatus()).isEqualTo("PLAYER_SURRENDER");
+                    assertThat(res.getNetUnits()).isEqualTo(-0.5);
+                })
+                .verifyComplete();
+
+        verify(playerRepository).recordResult(1L, 0, 1);
+    }
+
+    @Test
+    void playMove_INSURANCE_ShouldOnlyBeOfferedAgainstDealerAce() {
+        Game game = shoeGame("g12", List.of("10H", "6D"), List.of("AC", "7S"));
+        mockHandsSave();
+
+        StepVerifier.create(gameService.playMove("g12", new PlayRequestDTO("INSURANCE")))
+                .assertNext(res -> assertThat(res.getStatus()).isEqualTo("IN_PROGRESS"))
+                .verifyComplete();
+        assertThat(game.isInsured()).isTrue();
+
+        shoeGame("g13", List.of("10H", "6D"), List.of("10C", "7S"));
+        StepVerifier.create(gameService.playMove("g13", new PlayRequestDTO("INSURANCE")))
+                .expectError(InvalidMoveException.class)
+                .verify();
     }
 
     @Test
@@ -181,16 +401,39 @@ class GameServiceTest {
 
         when(gameRepository.findById("game-100"))
                 .thenReturn(Mono.just(game));
+        when(strategyAdvisor.advise(game))
+                .thenReturn(Mono.just(Move.STAND));
 
         StepVerifier.create(gameService.getGame("game-100"))
                 .assertNext(res -> {
                     assertThat(res.getGameId()).isEqualTo("game-100");
                     assertThat(res.getPlayerId()).isEqualTo(1L);
                     assertThat(res.getPlayerHand()).containsExactly("AH", "7D");
+                    assertThat(res.getSuggestedMove()).isEqualTo("STAND");
                 })
                 .verifyComplete();
     }
 
+    @Test
+    void getGame_ShouldNotSuggestMove_WhenGameIsFinished() {
+        Game game = mockGame(
+                "game-101",
+                List.of("10H", "9D"),
+                List.of("10C", "7S"),
+                List.of("2H"),
+                GameStatus.PLAYER_WIN
+        );
+
+        when(gameRepository.findById("game-101"))
+                .thenReturn(Mono.just(game));
+
+        StepVerifier.create(gameService.getGame("game-101"))
+                .assertNext(res -> assertThat(res.getSuggestedMove()).isNull())
+                .verifyComplete();
+
+        verifyNoInteractions(strategyAdvisor);
+    }
+
     @Test
     void getGame_ShouldReturnError_WhenGameDoesNotExist() {
         when(gameRepository.findById("not-found")).thenReturn(Mono.empty());
@@ -236,7 +479,7 @@ class GameServiceTest {
         );
 
         when(gameRepository.findById("g1")).thenReturn(Mono.just(game));
-        mockGameSave();
+        mockHandsSave();
 
         StepVerifier.create(gameService.playMove("g1", new PlayRequestDTO("HIT")))
                 .assertNext(res -> assertThat(res.getPlayerHand()).hasSize(3))
@@ -254,14 +497,17 @@ class GameServiceTest {
         );
 
         when(gameRepository.findById("g2")).thenReturn(Mono.just(game));
-        mockGameSave();
+        mockFinishGame();
         mockPlayerRepo();
 
         StepVerifier.create(gameService.playMove("g2", new PlayRequestDTO("HIT")))
                 .assertNext(res -> assertThat(res.getStatus()).isEqualTo("PLAYER_BUST"))
                 .verifyComplete();
 
-        verify(playerRepository, times(1)).save(any(Player.class));
+        verify(playerRepository, times(1)).recordResult(1L, 0, 1);
+        verify(leaderboard, times(1)).recordResult(1L, 0, 1);
+        verify(gameMetrics).gameFinished(argThat(finished ->
+                finished.getStatus() == GameStatus.PLAYER_BUST && finished.getMoves() == 1));
     }
 
     @Test
@@ -275,14 +521,223 @@ class GameServiceTest {
         );
 
         when(gameRepository.findById("g3")).thenReturn(Mono.just(game));
-        mockGameSave();
+        mockFinishGame();
         mockPlayerRepo();
 
         StepVerifier.create(gameService.playMove("g3", new PlayRequestDTO("STAND")))
                 .assertNext(res -> assertThat(res.getStatus()).isNotEqualTo("IN_PROGRESS"))
                 .verifyComplete();
 
-        verify(playerRepository, times(1)).save(any(Player.class));
+        verify(playerRepository, times(1)).recordResult(eq(1L), anyInt(), anyInt());
+        verify(playerRepository, never()).save(any(Player.class));
+        verify(gameRepository, times(1)).finishGame(game);
+        verify(gameRepository, never()).save(any(Game.class));
+    }
+
+    @Test
+    void playMove_ShouldRetryOnConcurrentModification() {
+        when(gameRepository.findById("g6")).thenAnswer(invocation -> Mono.just(mockGame(
+                "g6",
+                List.of("2H", "3D"),
+                List.of("10C", "7S"),
+                List.of("4C", "5D"),
+                GameStatus.IN_PROGRESS
+        )));
+        when(gameRepository.saveHands(any(Game.class)))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("conflict")))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(gameService.playMove("g6", new PlayRequestDTO("HIT")))
+                .assertNext(res -> assertThat(res.getPlayerHand()).containsExactly("2H", "3D", "4C"))
+                .verifyComplete();
+
+        verify(gameRepository, times(2)).findById("g6");
+    }
+
+    @Test
+    void playMove_ShouldNotUpdateStats_WhenAnotherRequestFinishedTheGame() {
+        Game inProgress = mockGame(
+                "g7",
+                List.of("10H", "9D"),
+                List.of("5C", "7D"),
+                List.of("8C", "6H"),
+                GameStatus.IN_PROGRESS
+        );
+        Game finished = mockGame(
+                "g7",
+                List.of("10H", "9D", "2C"),
+                List.of("5C", "7D"),
+                List.of("8C", "6H"),
+                GameStatus.PLAYER_WIN
+        );
+
+        when(gameRepository.findById("g7"))
+                .thenReturn(Mono.just(inProgress))
+                .thenReturn(Mono.just(finished));
+        when(gameRepository.finishGame(any(Game.class)))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("conflict")));
+
+        StepVerifier.create(gameService.playMove("g7", new PlayRequestDTO("STAND")))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        verify(playerRepository, never()).recordResult(anyLong(), anyInt(), anyInt());
+        verifyNoInteractions(leaderboard, gameMetrics);
+    }
+
+    @Test
+    void playSession_ShouldReadGameOnceAndWriteEveryMoveThrough() {
+        Game game = shoeGame("s1", List.of("2H", "3D"), List.of("10C", "7S"));
+        game.setVersion(3L);
+        when(gameRepository.saveHand(any(Game.class), anyInt())).thenAnswer(invocation -> {
+            Game saved = invocation.getArgument(0);
+            return Mono.just(Game.builder().id(saved.getId()).version(saved.getVersion() + 1).build());
+        });
+
+        Flux<PlayRequestDTO> moves = Flux.just(new PlayRequestDTO("HIT"), new PlayRequestDTO("SPLIT"), new PlayRequestDTO("HIT"));
+
+        StepVerifier.create(gameService.playSession("s1", moves))
+                .assertNext(frame -> assertThat(frame.getState().getPlayerHand()).containsExactly("2H", "3D"))
+                .assertNext(frame -> assertThat(frame.getState().getPlayerHand()).containsExactly("2H", "3D", "5H"))
+                .assertNext(frame -> assertThat(frame.getError()).isEqualTo("Can only split two cards of the same value"))
+                .assertNext(frame -> assertThat(frame.getState().getPlayerHand()).containsExactly("2H", "3D", "5H", "4D"))
+                .verifyComplete();
+
+        verify(gameRepository, times(1)).findById("s1");
+        verify(gameRepository, times(2)).saveHand(game, 0);
+        assertThat(game.getVersion()).isEqualTo(5L);
+    }
+
+    @Test
+    void playSession_ShouldReloadGame_WhenAnotherRequestChangedIt() {
+        Game game = shoeGame("s2", List.of("2H", "3D"), List.of("10C", "7S"));
+        Game changed = shoeGame("s2", List.of("2H", "3D"), List.of("10C", "7S"));
+        when(gameRepository.findById("s2"))
+                .thenReturn(Mono.just(game))
+                .thenReturn(Mono.just(changed));
+        when(gameRepository.saveHand(any(Game.class), anyInt()))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("conflict")))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(gameService.playSession("s2", Flux.just(new PlayRequestDTO("HIT"), new PlayRequestDTO("HIT"))))
+                .expectNextCount(2)
+                .assertNext(frame -> {
+                    assertThat(frame.getError()).isEqualTo("Game was modified by another request");
+                    assertThat(frame.getState().getPlayerHand()).containsExactly("2H", "3D");
+                })
+                .assertNext(frame -> assertThat(frame.getState().getPlayerHand()).containsExactly("2H", "3D", "5H"))
+                .verifyComplete();
+
+        // The move after the conflict is played on the reloaded game
+        assertThat(changed.getHands().get(0).getCards()).isEqualTo(Cards.encodeAll(List.of("2H", "3D", "5H")));
+        verify(gameRepository, times(2)).findById("s2");
+    }
+
+    @Test
+    void playMove_ShouldOnlyMarkCachedGameDirty_UntilItFinishes() {
+        Game game = shoeGame("c1", List.of("10H", "2D"), List.of("10C", "7S"));
+        when(gameCache.isEnabled()).thenReturn(true);
+        when(gameCache.get("c1")).thenReturn(Mono.just(game));
+        when(gameCache.pin(game)).thenReturn(true);
+        when(gameCache.markDirty(game)).thenReturn(Mono.just(game));
+        when(gameCache.complete(game)).thenReturn(Mono.just(game));
+        mockPlayerRepo();
+
+        StepVerifier.create(gameService.playMove("c1", new PlayRequestDTO("HIT")))
+                .assertNext(res -> assertThat(res.getPlayerValue()).isEqualTo(17))
+                .verifyComplete();
+        verify(gameCache).markDirty(game);
+
+        StepVerifier.create(gameService.playMove("c1", new PlayRequestDTO("STAND")))
+                .assertNext(res -> assertThat(res.getStatus()).isEqualTo("TIE"))
+                .verifyComplete();
+
+        verify(gameCache).complete(game);
+        // Pinned for each move until it was stored
+        verify(gameCache, times(2)).pin(game);
+        verify(gameCache, times(2)).unpin(game);
+        verify(playerRepository).recordResult(1L, 0, 0);
+        verify(gameRepository, never()).findById(anyString());
+        verify(gameRepository, never()).saveHand(any(Game.class), anyInt());
+        verify(gameRepository, never()).finishGame(any(Game.class));
+    }
+
+    @Test
+    void playBatch_ShouldPlayEveryMoveAndStoreGamesInOneBulkWrite() {
+        Game first = shoeGame("b1", List.of("2H", "3D"), List.of("10C", "7S"));
+        Game second = shoeGame("b2", List.of("10H", "6D"), List.of("10C", "7S"));
+        when(gameRepository.findAllById(anyIterable())).thenReturn(Flux.just(first, second));
+        when(gameRepository.saveGames(anyList())).thenReturn(Mono.just(Set.of("b1", "b2")));
+        mockPlayerRepo();
+
+        Flux<BatchMoveRequest> requests = Flux.just(
+                new BatchMoveRequest("b1", List.of("HIT", "HIT")),
+                new BatchMoveRequest("b2", List.of("SURRENDER")),
+                new BatchMoveRequest("missing", List.of("HIT")));
+
+        StepVerifier.create(gameService.playBatch(requests))
+                .assertNext(res -> assertThat(res.getResult().getPlayerHand()).containsExactly("2H", "3D", "5H"))
+                .assertNext(res -> {
+                    assertThat(res.getIndex()).isEqualTo(1);
+                    assertThat(res.getResult().getPlayerHand()).containsExactly("2H", "3D", "5H", "4D");
+                })
+                .assertNext(res -> assertThat(res.getResult().getStatus()).isEqualTo("PLAYER_SURRENDER"))
+                .assertNext(res -> {
+                    assertThat(res.getGameId()).isEqualTo("missing");
+                    assertThat(res.getError()).isEqualTo("Game not found");
+                })
+                .verifyComplete();
+
+        verify(gameRepository, times(1)).saveGames(List.of(first, second));
+        verify(gameRepository, never()).findById(anyString());
+        verify(playerRepository, times(1)).recordResult(1L, 0, 1);
+    }
+
+    @Test
+    void playBatch_ShouldBypassTheCache_WhenItIsEnabled() {
+        Game game = shoeGame("b5", List.of("2H", "3D"), List.of("10C", "7S"));
+        when(gameCache.isEnabled()).thenReturn(true);
+        AtomicInteger releases = new AtomicInteger();
+        when(gameCache.release(anyCollection())).thenReturn(Mono.fromRunnable(releases::incrementAndGet));
+        when(gameRepository.findAllById(anyIterable())).thenReturn(Flux.just(game));
+        when(gameRepository.saveGames(anyList())).thenReturn(Mono.just(Set.of("b5")));
+
+        StepVerifier.create(gameService.playBatch(Flux.just(new BatchMoveRequest("b5", List.of("HIT")))))
+                .assertNext(res -> assertThat(res.getResult().getPlayerHand()).containsExactly("2H", "3D", "5H"))
+                .verifyComplete();
+
+        // Cached moves are stored before the read, and the game dropped again after the write
+        verify(gameCache).release(Set.of("b5"));
+        assertThat(releases).hasValue(2);
+        verify(gameRepository).saveGames(List.of(game));
+        verify(gameCache, never()).get(anyString());
+        verify(gameCache, never()).markDirty(any(Game.class));
+    }
+
+    @Test
+    void playBatch_ShouldStopAtFirstInvalidMoveAndReportConflicts() {
+        Game invalid = shoeGame("b3", List.of("8H", "9D"), List.of("10C", "7S"));
+        Game conflicted = shoeGame("b4", List.of("2H", "3D"), List.of("10C", "7S"));
+        when(gameRepository.findAllById(anyIterable())).thenReturn(Flux.just(invalid, conflicted));
+        when(gameRepository.saveGames(anyList())).thenReturn(Mono.just(Set.of()));
+
+        Flux<BatchMoveRequest> requests = Flux.just(
+                new BatchMoveRequest("b3", List.of("SPLIT", "HIT")),
+                new BatchMoveRequest("b4", List.of("HIT")));
+
+        StepVerifier.create(gameService.playBatch(requests))
+                .assertNext(res -> {
+                    assertThat(res.getIndex()).isZero();
+                    assertThat(res.getError()).isEqualTo("Can only split two cards of the same value");
+                })
+                .assertNext(res -> {
+                    assertThat(res.getGameId()).isEqualTo("b4");
+                    assertThat(res.getError()).isEqualTo("Game was modified by another request");
+                })
+                .verifyComplete();
+
+        // Nothing was played on b3, so only b4 is written
+        verify(gameRepository).saveGames(List.of(conflicted));
     }
 
     @Test
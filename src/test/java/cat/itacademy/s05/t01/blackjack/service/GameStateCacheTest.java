@@ -0,0 +1,165 @@
+package cat.itacademy.s05.t01.blackjack.service;
+
+import cat.itacademy.s05.t01.blackjack.config.GameCacheProperties;
+import cat.itacademy.s05.t01.blackjack.model.mongo.Game;
+import cat.itacademy.s05.t01.blackjack.model.mongo.GameStatus;
+import cat.itacademy.s05.t01.blackjack.model.mongo.HandStatus;
+import cat.itacademy.s05.t01.blackjack.model.mongo.PlayerHand;
+import cat.itacademy.s05.t01.blackjack.repository.mongo.GameReactiveRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class GameStateCacheTest {
+
+    private final GameReactiveRepository gameRepository = mock(GameReactiveRepository.class);
+
+    private final GameStateCache cache = new GameStateCache(gameRepository,
+            new GameCacheProperties(true, 100, Duration.ofMinutes(10), Duration.ofSeconds(1)));
+
+    private Game game(String id, GameStatus status) {
+        List<PlayerHand> hands = new ArrayList<>();
+        hands.add(PlayerHand.builder().cards(new byte[]{1, 2}).total(5).bet(1).status(HandStatus.PLAYING).build());
+        return Game.builder().id(id).hands(hands).status(status).version(7L).build();
+    }
+
+    @Test
+    void get_ShouldReadInProgressGamesOnce() {
+        when(gameRepository.findById("g1")).thenReturn(Mono.just(game("g1", GameStatus.IN_PROGRESS)));
+        when(gameRepository.findById("g2")).thenAnswer(invocation -> Mono.just(game("g2", GameStatus.PLAYER_WIN)));
+
+        Game first = cache.get("g1").block();
+        assertThat(cache.get("g1").block()).isSameAs(first);
+        cache.get("g2").block();
+        cache.get("g2").block();
+
+        verify(gameRepository, times(1)).findById("g1");
+        verify(gameRepository, times(2)).findById("g2");
+        assertThat(cache.stats().hits()).isEqualTo(1);
+        assertThat(cache.stats().misses()).isEqualTo(3);
+        assertThat(cache.stats().size()).isEqualTo(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void flush_ShouldWriteDirtyGamesOnceInOneBulkWrite() {
+        when(gameRepository.findById("g1")).thenReturn(Mono.just(game("g1", GameStatus.IN_PROGRESS)));
+        when(gameRepository.findById("g2")).thenReturn(Mono.just(game("g2", GameStatus.IN_PROGRESS)));
+        when(gameRepository.saveGames(anyList())).thenReturn(Mono.just(Set.of("g1")));
+
+        Game first = cache.get("g1").block();
+        Game second = cache.get("g2").block();
+        cache.markDirty(first);
+        cache.markDirty(first);
+        cache.markDirty(second);
+
+        StepVerifier.create(cache.flush()).verifyComplete();
+        StepVerifier.create(cache.flush()).verifyComplete();
+
+        // Both moves on g1 go out in a single write, g2 was changed elsewhere and is dropped
+        ArgumentCaptor<List<Game>> written = ArgumentCaptor.forClass(List.class);
+        verify(gameRepository, times(1)).saveGames(written.capture());
+        assertThat(written.getValue()).extracting(Game::getId).containsExactlyInAnyOrder("g1", "g2");
+        assertThat(first.getVersion()).isEqualTo(8L);
+        assertThat(cache.stats().conflicts()).isEqualTo(1);
+        assertThat(cache.stats().size()).isEqualTo(1);
+    }
+
+    @Test
+    void release_ShouldStoreDirtyGamesAndDropEveryGameAsked() {
+        when(gameRepository.findById("g1")).thenReturn(Mono.just(game("g1", GameStatus.IN_PROGRESS)));
+        when(gameRepository.findById("g2")).thenReturn(Mono.just(game("g2", GameStatus.IN_PROGRESS)));
+        when(gameRepository.findById("g3")).thenReturn(Mono.just(game("g3", GameStatus.IN_PROGRESS)));
+        when(gameRepository.saveGames(anyList())).thenReturn(Mono.just(Set.of("g1")));
+
+        Game dirty = cache.get("g1").block();
+        cache.get("g2").block();
+        cache.get("g3").block();
+        cache.markDirty(dirty);
+
+        StepVerifier.create(cache.release(List.of("g1", "g2"))).verifyComplete();
+
+        // Only g1 had moves to store; g3 was not asked for and stays
+        verify(gameRepository, times(1)).saveGames(argThat(games -> games.size() == 1 && games.get(0).getId().equals("g1")));
+        assertThat(cache.stats().size()).isEqualTo(1);
+    }
+
+    @Test
+    void get_ShouldNotEvictGamesWithAMoveInProgress() {
+        GameStateCache small = new GameStateCache(gameRepository,
+                new GameCacheProperties(true, 1, Duration.ofMinutes(10), Duration.ofSeconds(1)));
+        for (String id : List.of("g1", "g2", "g3")) {
+            when(gameRepository.findById(id)).thenAnswer(invocation -> Mono.just(game(id, GameStatus.IN_PROGRESS)));
+        }
+
+        Game pinned = small.get("g1").block();
+        assertThat(small.pin(pinned)).isTrue();
+        small.get("g2").block();
+        assertThat(small.get("g1").block()).isSameAs(pinned);
+
+        small.unpin(pinned);
+        small.get("g3").block();
+        assertThat(small.get("g1").block()).isNotSameAs(pinned);
+        verify(gameRepository, times(2)).findById("g1");
+    }
+
+    @Test
+    void markDirty_ShouldWriteThrough_WhenTheGameIsNoLongerCached() {
+        Game dropped = game("g1", GameStatus.IN_PROGRESS);
+        when(gameRepository.findById("g1")).thenReturn(Mono.just(dropped));
+        when(gameRepository.saveGames(anyList()))
+                .thenReturn(Mono.just(Set.of("g1")))
+                .thenReturn(Mono.just(Set.of()));
+
+        cache.get("g1").block();
+        cache.invalidate("g1");
+        assertThat(cache.pin(dropped)).isFalse();
+
+        StepVerifier.create(cache.markDirty(dropped))
+                .expectNext(dropped)
+                .verifyComplete();
+        assertThat(dropped.getVersion()).isEqualTo(8L);
+
+        StepVerifier.create(cache.markDirty(dropped))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+        assertThat(cache.stats().size()).isZero();
+    }
+
+    @Test
+    void complete_ShouldWriteFinishedGameAndDropIt() {
+        Game cached = game("g1", GameStatus.IN_PROGRESS);
+        when(gameRepository.findById("g1")).thenReturn(Mono.just(cached));
+        when(gameRepository.saveGames(anyList()))
+                .thenReturn(Mono.just(Set.of()))
+                .thenReturn(Mono.just(Set.of("g1")));
+
+        cache.get("g1").block();
+        cached.setStatus(GameStatus.PLAYER_WIN);
+
+        StepVerifier.create(cache.complete(cached))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+
+        Game reloaded = game("g1", GameStatus.IN_PROGRESS);
+        when(gameRepository.findById("g1")).thenReturn(Mono.just(reloaded));
+        cache.get("g1").block();
+        reloaded.setStatus(GameStatus.PLAYER_WIN);
+
+        StepVerifier.create(cache.complete(reloaded))
+                .expectNext(reloaded)
+                .verifyComplete();
+        assertThat(cache.stats().size()).isZero();
+    }
+}
@@ -0,0 +1,199 @@
+package cat.itacademy.s05.t01.blackjack.service;
+
+import cat.itacademy.s05.t01.blackjack.config.LeaderboardProperties;
+import cat.itacademy.s05.t01.blackjack.model.mysql.Player;
+import cat.itacademy.s05.t01.blackjack.repository.mysql.PlayerRepository;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LeaderboardTest {
+
+    private final PlayerRepository playerRepository = mock(PlayerRepository.class);
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    private Leaderboard loadedLeaderboard(Duration maxStaleness, Player... players) {
+        when(playerRepository.currentTime()).thenReturn(Mono.just(NOW));
+        when(playerRepository.findRanking(Leaderboard.PAGE_SIZE)).thenReturn(Flux.just(players));
+        Leaderboard leaderboard = new Leaderboard(playerRepository,
+                new LeaderboardProperties(true, maxStaleness, Duration.ofSeconds(30)));
+        leaderboard.reload().block();
+        return leaderboard;
+    }
+
+    private Player player(long id, String name, int played, int won) {
+        return Player.builder()
+                .id(id).name(name)
+                .gamesPlayed(played).gamesWon(won).gamesLost(played - won)
+                .winRate(played == 0 ? 0 : won * 1.0 / played)
+                .build();
+    }
+
+    @Test
+    void top_ShouldOrderByWinsThenWinRateThenId() {
+        Leaderboard leaderboard = loadedLeaderboard(Duration.ofMinutes(1),
+                player(1, "Alice", 10, 7),
+                player(3, "Charlie", 10, 9),
+                player(2, "Bob", 10, 9),
+                player(4, "Dana", 9, 7));
+
+        assertThat(leaderboard.isFresh()).isTrue();
+        assertThat(leaderboard.top(10)).extracting(Player::getName)
+                .containsExactly("Bob", "Charlie", "Dana", "Alice");
+        assertThat(leaderboard.after(9, 0.9, 3, 1)).extracting(Player::getName)
+                .containsExactly("Dana");
+    }
+
+    @Test
+    void recordResultAndRename_ShouldUpdateRankingInPlace() {
+        Leaderboard leaderboard = loadedLeaderboard(Duration.ofMinutes(1),
+                player(1, "Alice", 2, 1),
+                player(2, "Bob", 2, 1));
+
+        leaderboard.recordResult(2L, 1, 0);
+        leaderboard.rename(1L, "Alicia");
+        leaderboard.add(player(5, "Eve", 0, 0));
+
+        assertThat(leaderboard.top(10)).extracting(Player::getName)
+                .containsExactly("Bob", "Alicia", "Eve");
+        assertThat(leaderboard.top(1).get(0).getWinRate()).isEqualTo(2.0 / 3);
+        assertThat(leaderboard.nameOf(1L)).contains("Alicia");
+        assertThat(leaderboard.nameOf(9L)).isEmpty();
+    }
+
+    @Test
+    void reload_ShouldLoadTheRankingPageByPage() {
+        Player[] firstPage = IntStream.range(0, Leaderboard.PAGE_SIZE)
+                .mapToObj(i -> player(i + 1, "P" + i, 20, 10))
+                .toArray(Player[]::new);
+        Player last = firstPage[firstPage.length - 1];
+        when(playerRepository.findRankingAfter(10, 0.5, last.getId(), Leaderboard.PAGE_SIZE))
+                .thenReturn(Flux.just(player(20_000, "Zed", 20, 1)));
+
+        Leaderboard leaderboard = loadedLeaderboard(Duration.ofMinutes(1), firstPage);
+
+        assertThat(leaderboard.top(Leaderboard.PAGE_SIZE + 10)).hasSize(Leaderboard.PAGE_SIZE + 1)
+                .last().extracting(Player::getName).isEqualTo("Zed");
+        verify(playerRepository, never()).findAll();
+    }
+
+    @Test
+    void reload_ShouldOnlyReadPlayersChangedSinceTheLastSync() {
+        Leaderboard leaderboard = loadedLeaderboard(Duration.ofMinutes(1),
+                player(1, "Alice", 2, 2),
+                player(2, "Bob", 2, 1));
+        // Bob won twice and Carol joined on another instance
+        when(playerRepository.currentTime()).thenReturn(Mono.just(NOW.plusSeconds(30)));
+        when(playerRepository.findUpdatedSince(NOW.minusSeconds(5)))
+                .thenReturn(Flux.just(player(2, "Bob", 4, 3), player(3, "Carol", 1, 1)));
+
+        StepVerifier.create(leaderboard.reload()).verifyComplete();
+
+        assertThat(leaderboard.top(10)).extracting(Player::getName)
+                .containsExactly("Bob", "Alice", "Carol");
+        assertThat(leaderboard.top(1).get(0).getGamesPlayed()).isEqualTo(4);
+        verify(playerRepository).findRanking(anyInt());
+        verify(playerRepository, never()).findRankingAfter(anyInt(), anyDouble(), anyLong(), anyInt());
+
+        // The next sync starts from where this one ended
+        when(playerRepository.findUpdatedSince(any())).thenReturn(Flux.empty());
+        StepVerifier.create(leaderboard.reload()).verifyComplete();
+        verify(playerRepository).findUpdatedSince(NOW.plusSeconds(25));
+    }
+
+    @Test
+    void isFresh_ShouldBeFalse_WhenNotLoadedOrTooOld() {
+        Leaderboard notLoaded = new Leaderboard(playerRepository,
+                new LeaderboardProperties(true, Duration.ofMinutes(1), Duration.ofSeconds(30)));
+
+        assertThat(notLoaded.isFresh()).isFalse();
+        assertThat(notLoaded.nameOf(1L)).isEmpty();
+        assertThat(loadedLeaderboard(Duration.ZERO, player(1, "Alice", 1, 1)).isFresh()).isFalse();
+    }
+
+    @Test
+    void changes_ShouldPublishRankAndCountersOfUpdatedPlayer() {
+        Leaderboard leaderboard = loadedLeaderboard(Duration.ofMinutes(1),
+                player(1, "Alice", 2, 2),
+                player(2, "Bob", 2, 1));
+
+        StepVerifier.create(leaderboard.changes())
+                .then(() -> {
+                    leaderboard.recordResult(2L, 1, 0);
+                    leaderboard.recordResult(2L, 1, 0);
+                })
+                .assertNext(event -> {
+                    assertThat(event.getPlayerId()).isEqualTo(2L);
+                    assertThat(event.getPreviousRank()).isEqualTo(2);
+                    assertThat(event.getRank()).isEqualTo(2);
+                    assertThat(event.getGamesWon()).isEqualTo(2);
+                })
+                .assertNext(event -> {
+                    assertThat(event.getPreviousRank()).isEqualTo(2);
+                    assertThat(event.getRank()).isEqualTo(1);
+                    assertThat(event.getGamesPlayed()).isEqualTo(4);
+                })
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void changes_ShouldCarryEveryChange_WhenGamesFinishOnManyThreadsAtOnce() throws Exception {
+        Leaderboard leaderboard = loadedLeaderboard(Duration.ofMinutes(1),
+                IntStream.rangeClosed(1, 8).mapToObj(i -> player(i, "P" + i, 0, 0)).toArray(Player[]::new));
+        AtomicInteger received = new AtomicInteger();
+        Disposable viewer = leaderboard.changes().subscribe(event -> received.incrementAndGet());
+
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        for (long id = 1; id <= 8; id++) {
+            long playerId = id;
+            threads.submit(() -> IntStream.range(0, 500).forEach(i -> leaderboard.recordResult(playerId, 1, 0)));
+        }
+        threads.shutdown();
+        assertThat(threads.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        viewer.dispose();
+
+        assertThat(received).hasValue(8 * 500);
+    }
+
+    @Test
+    void changes_ShouldOnlyCarryChangesMadeWhileWatched() {
+        Leaderboard leaderboard = loadedLeaderboard(Duration.ofMinutes(1),
+                player(1, "Alice", 2, 2),
+                player(2, "Bob", 2, 1));
+
+        // Nobody watches: the ranking moves but no rank is worked out
+        leaderboard.recordResult(2L, 1, 0);
+
+        StepVerifier.create(leaderboard.changes())
+                .then(() -> leaderboard.recordResult(2L, 1, 0))
+                .assertNext(event -> {
+                    assertThat(event.getPreviousRank()).isEqualTo(2);
+                    assertThat(event.getRank()).isEqualTo(1);
+                    assertThat(event.getGamesWon()).isEqualTo(3);
+                })
+                .thenCancel()
+                .verify();
+    }
+}
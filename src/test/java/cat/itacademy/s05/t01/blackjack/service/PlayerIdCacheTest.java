@@ -0,0 +1,83 @@
+package cat.itacademy.s05.t01.blackjack.service;
+
+import cat.itacademy.s05.t01.blackjack.model.mysql.Player;
+import cat.itacademy.s05.t01.blackjack.repository.mysql.PlayerRepository;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PlayerIdCacheTest {
+
+    private final PlayerRepository playerRepository = mock(PlayerRepository.class);
+    private final Leaderboard leaderboard = mock(Leaderboard.class);
+
+    private final PlayerIdCache playerIds = new PlayerIdCache(playerRepository, leaderboard);
+
+    @Test
+    void idOf_ShouldUpsertOnlyTheFirstTime() {
+        when(playerRepository.findOrCreateIdByName("Bob")).thenReturn(Mono.just(5L));
+        when(leaderboard.nameOf(5L)).thenReturn(Optional.of("Bob"));
+
+        StepVerifier.create(playerIds.idOf("Bob")).expectNext(5L).verifyComplete();
+        StepVerifier.create(playerIds.idOf("Bob")).expectNext(5L).verifyComplete();
+
+        verify(playerRepository, times(1)).findOrCreateIdByName("Bob");
+        verify(leaderboard, times(1)).add(any(Player.class));
+    }
+
+    @Test
+    void idOf_ShouldUpsertOnce_WhenFirstLookupsArriveTogether() {
+        when(playerRepository.findOrCreateIdByName("Zoe"))
+                .thenReturn(Mono.just(7L).delaySubscription(Duration.ofMillis(50)));
+
+        StepVerifier.create(Flux.range(0, 5).flatMap(i -> playerIds.idOf("Zoe")))
+                .expectNext(7L, 7L, 7L, 7L, 7L)
+                .verifyComplete();
+
+        verify(playerRepository, times(1)).findOrCreateIdByName("Zoe");
+    }
+
+    @Test
+    void forget_ShouldResolveTheNameAgain() {
+        when(playerRepository.findOrCreateIdByName("Ann"))
+                .thenReturn(Mono.just(3L), Mono.just(9L));
+        when(leaderboard.nameOf(3L)).thenReturn(Optional.of("Ann"));
+
+        StepVerifier.create(playerIds.idOf("Ann")).expectNext(3L).verifyComplete();
+        playerIds.forget("Ann");
+        StepVerifier.create(playerIds.idOf("Ann")).expectNext(9L).verifyComplete();
+
+        verify(playerRepository, times(2)).findOrCreateIdByName("Ann");
+    }
+
+    @Test
+    void idOf_ShouldResolveTheNameAgain_WhenThePlayerWasRenamedElsewhere() {
+        when(playerRepository.findOrCreateIdByName("Ann"))
+                .thenReturn(Mono.just(3L), Mono.just(9L));
+        when(leaderboard.nameOf(3L)).thenReturn(Optional.of("Ann"), Optional.of("Annie"));
+
+        StepVerifier.create(playerIds.idOf("Ann")).expectNext(3L).verifyComplete();
+        StepVerifier.create(playerIds.idOf("Ann")).expectNext(3L).verifyComplete();
+        StepVerifier.create(playerIds.idOf("Ann")).expectNext(9L).verifyComplete();
+
+        verify(playerRepository, times(2)).findOrCreateIdByName("Ann");
+    }
+
+    @Test
+    void idOf_ShouldNotTrustTheCache_WhenTheLeaderboardCannotConfirmTheName() {
+        when(playerRepository.findOrCreateIdByName("Bob")).thenReturn(Mono.just(5L));
+        when(leaderboard.nameOf(5L)).thenReturn(Optional.empty());
+
+        StepVerifier.create(playerIds.idOf("Bob")).expectNext(5L).verifyComplete();
+        StepVerifier.create(playerIds.idOf("Bob")).expectNext(5L).verifyComplete();
+
+        verify(playerRepository, times(2)).findOrCreateIdByName("Bob");
+    }
+}
@@ -4,6 +4,7 @@ import cat.itacademy.s05.t01.blackjack.dto.PlayerRankingResponse;
 import cat.itacademy.s05.t01.blackjack.dto.PlayerResponse;
 import cat.itacademy.s05.t01.blackjack.dto.PlayerUpdateRequest;
 import cat.itacademy.s05.t01.blackjack.exception.NotFoundException;
+import cat.itacademy.s05.t01.blackjack.exception.ValidationException;
 import cat.itacademy.s05.t01.blackjack.model.mysql.Player;
 import cat.itacademy.s05.t01.blackjack.repository.mysql.PlayerRepository;
 import org.junit.jupiter.api.Test;
@@ -11,12 +12,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -27,6 +31,12 @@ class PlayerServiceTest {
     @Mock
     private PlayerRepository playerRepository;
 
+    @Mock
+    private Leaderboard leaderboard;
+
+    @Mock
+    private PlayerIdCache playerIds;
+
     @InjectMocks
     private PlayerServiceImpl playerService;
 
@@ -51,10 +61,10 @@ class PlayerServiceTest {
                 .build();
 
         when(playerRepository.findById(playerId))
-                .thenReturn(Mono.just(existing));
+                .thenReturn(Mono.just(existing), Mono.just(updated));
 
-        when(playerRepository.save(any(Player.class)))
-                .thenReturn(Mono.just(updated));
+        when(playerRepository.rename(playerId, "NewName"))
+                .thenReturn(Mono.just(1));
 
         Mono<PlayerResponse> result =
                 playerService.updatePlayerName(playerId, new PlayerUpdateRequest("NewName"));
@@ -67,8 +77,25 @@ class PlayerServiceTest {
                 })
                 .verifyComplete();
 
-        verify(playerRepository, times(1)).findById(playerId);
-        verify(playerRepository, times(1)).save(any(Player.class));
+        verify(playerRepository, times(2)).findById(playerId);
+        verify(playerRepository, times(1)).rename(playerId, "NewName");
+        verify(playerRepository, never()).save(any(Player.class));
+        verify(leaderboard, times(1)).rename(playerId, "NewName");
+        verify(playerIds, times(1)).forget("OldName");
+    }
+
+    @Test
+    void updatePlayerName_ShouldReturnValidationError_WhenNameIsTaken() {
+        when(playerRepository.findById(1L))
+                .thenReturn(Mono.just(Player.builder().id(1L).name("OldName").build()));
+        when(playerRepository.rename(1L, "Bob"))
+                .thenReturn(Mono.error(new DataIntegrityViolationException("Duplicate entry 'Bob'")));
+
+        StepVerifier.create(playerService.updatePlayerName(1L, new PlayerUpdateRequest("Bob")))
+                .expectError(ValidationException.class)
+                .verify();
+
+        verifyNoInteractions(leaderboard, playerIds);
     }
 
     @Test
@@ -90,39 +117,87 @@ class PlayerServiceTest {
     }
 
     @Test
-    void getRanking_ShouldReturnPlayersOrderedByWinsAndWinRate() {
+    void getRanking_ShouldReturnFirstPageFromDatabaseOrder() {
         Player p1 = Player.builder()
-                .id(1L).name("Alice")
-                .gamesPlayed(10).gamesWon(7).gamesLost(3)
+                .id(2L).name("Bob")
+                .gamesPlayed(10).gamesWon(9).gamesLost(1).winRate(0.9)
                 .build();
 
         Player p2 = Player.builder()
-                .id(2L).name("Bob")
-                .gamesPlayed(10).gamesWon(9).gamesLost(1)
+                .id(3L).name("Charlie")
+                .gamesPlayed(10).gamesWon(9).gamesLost(1).winRate(0.9)
                 .build();
 
-        Player p3 = Player.builder()
+        when(playerRepository.findRanking(2))
+                .thenReturn(Flux.just(p1, p2));
+
+        Flux<PlayerRankingResponse> result = playerService.getRanking(2, null);
+
+        StepVerifier.create(result)
+                .assertNext(r -> {
+                    assertThat(r.getId()).isEqualTo(2L);
+                    assertThat(r.getWinRate()).isEqualTo(0.9);
+                    assertThat(r.getCursor()).isNotBlank();
+                })
+                .assertNext(r -> assertThat(r.getId()).isEqualTo(3L))
+                .verifyComplete();
+
+        verify(playerRepository, never()).findAll();
+    }
+
+    @Test
+    void getRanking_ShouldContinueAfterCursorPlayer() {
+        Player last = Player.builder()
                 .id(3L).name("Charlie")
-                .gamesPlayed(10).gamesWon(9).gamesLost(1)
+                .gamesPlayed(3).gamesWon(2).gamesLost(1).winRate(2.0 / 3)
                 .build();
 
-        when(playerRepository.findAll())
-                .thenReturn(Flux.just(p1, p3, p2)); // desordenados
+        when(playerRepository.findRanking(1)).thenReturn(Flux.just(last));
+        when(playerRepository.findRankingAfter(2, 2.0 / 3, 3L, 1)).thenReturn(Flux.empty());
 
-        Flux<PlayerRankingResponse> result = playerService.getRanking();
+        String cursor = playerService.getRanking(1, null).blockFirst().getCursor();
 
-        StepVerifier.create(result)
-                .assertNext(r -> assertThat(r.getId()).isEqualTo(2L))  // Bob (9 wins)
-                .assertNext(r -> assertThat(r.getId()).isEqualTo(3L))  // Charlie (9 wins, same winRate)
-                .assertNext(r -> assertThat(r.getId()).isEqualTo(1L))  // Alice (7 wins)
+        StepVerifier.create(playerService.getRanking(1, cursor))
+                .verifyComplete();
+
+        verify(playerRepository).findRankingAfter(2, 2.0 / 3, 3L, 1);
+    }
+
+    @Test
+    void getRanking_ShouldRejectInvalidLimitOrCursor() {
+        StepVerifier.create(playerService.getRanking(0, null))
+                .expectError(ValidationException.class)
+                .verify();
+
+        StepVerifier.create(playerService.getRanking(10, "not-a-cursor"))
+                .expectError(ValidationException.class)
+                .verify();
+
+        verifyNoInteractions(playerRepository);
+    }
+
+    @Test
+    void getRanking_ShouldServeFromLeaderboard_WhenItIsFresh() {
+        Player leader = Player.builder()
+                .id(4L).name("Dana")
+                .gamesPlayed(5).gamesWon(5).winRate(1.0)
+                .build();
+
+        when(leaderboard.isFresh()).thenReturn(true);
+        when(leaderboard.top(10)).thenReturn(List.of(leader));
+
+        StepVerifier.create(playerService.getRanking(10, null))
+                .assertNext(r -> assertThat(r.getName()).isEqualTo("Dana"))
                 .verifyComplete();
+
+        verifyNoInteractions(playerRepository);
     }
 
     @Test
     void getRanking_ShouldReturnEmptyList_WhenNoPlayersExist() {
-        when(playerRepository.findAll()).thenReturn(Flux.empty());
+        when(playerRepository.findRanking(50)).thenReturn(Flux.empty());
 
-        Flux<PlayerRankingResponse> result = playerService.getRanking();
+        Flux<PlayerRankingResponse> result = playerService.getRanking(50, null);
 
         StepVerifier.create(result)
                 .verifyComplete();
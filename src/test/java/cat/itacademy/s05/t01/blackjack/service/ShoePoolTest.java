@@ -0,0 +1,102 @@
+package cat.itacademy.s05.t01.blackjack.service;
+
+import cat.itacademy.s05.t01.blackjack.config.ShoeProperties;
+import cat.itacademy.s05.t01.blackjack.model.mongo.Shoe;
+import cat.itacademy.s05.t01.blackjack.repository.mongo.ShoeReactiveRepository;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ShoePoolTest {
+
+    private final ShoeReactiveRepository shoeRepository = mock(ShoeReactiveRepository.class);
+
+    // One deck of 52 cards, cut at 39, in blocks of 16
+    private final ShoePool shoePool = new ShoePool(shoeRepository, new ShoeProperties(1, 0.75, 16, 1, 4));
+
+    ShoePoolTest() {
+        when(shoeRepository.save(any(Shoe.class))).thenAnswer(invocation -> {
+            Shoe shoe = invocation.getArgument(0);
+            shoe.setId(UUID.randomUUID().toString());
+            return Mono.just(shoe);
+        });
+    }
+
+    @Test
+    void reserve_ShouldSeatGamesInWholeBlocksBeforeTheCutCard() {
+        ShoePool.Placement first = shoePool.reserve().block();
+        ShoePool.Placement second = shoePool.reserve().block();
+        ShoePool.Placement third = shoePool.reserve().block();
+
+        assertThat(first.endCard()).isEqualTo(16);
+        assertThat(second.firstCard()).isEqualTo(16);
+        assertThat(second.endCard()).isEqualTo(32);
+        // 32 + 16 is past the cut card: the next game gets a fresh shoe
+        assertThat(third.shoe()).isNotSameAs(first.shoe());
+        assertThat(third.firstCard()).isZero();
+        // Blocks for games that run out start at the cut card
+        assertThat(first.shoe().getNextBlock()).isEqualTo(39);
+    }
+
+    @Test
+    void reserve_ShouldKeepEveryShoe_WhenRequestsRaceToAFreshOne() {
+        List<Sinks.One<Shoe>> saves = new CopyOnWriteArrayList<>();
+        List<String> created = new CopyOnWriteArrayList<>();
+        when(shoeRepository.save(any(Shoe.class))).thenAnswer(invocation -> {
+            Shoe shoe = invocation.getArgument(0);
+            shoe.setId(UUID.randomUUID().toString());
+            created.add(shoe.getId());
+            Sinks.One<Shoe> saved = Sinks.one();
+            saves.add(saved);
+            return saved.asMono().thenReturn(shoe);
+        });
+
+        // Both requests find the pool empty and shuffle a shoe of their own, next to one refill
+        Mono<ShoePool.Placement> first = shoePool.reserve().cache();
+        Mono<ShoePool.Placement> second = shoePool.reserve().cache();
+        first.subscribe();
+        second.subscribe();
+        verify(shoeRepository, timeout(2_000).times(3)).save(any(Shoe.class));
+        List<String> raced = List.copyOf(created);
+        saves.forEach(saved -> saved.tryEmitValue(Shoe.builder().build()));
+
+        Shoe dealt = first.block().shoe();
+        assertThat(second.block().shoe()).isSameAs(dealt);
+
+        // The one that lost the race and the refill are both handed out before any new shoe
+        Duration noNewShoe = Duration.ofSeconds(1);
+        assertThat(List.of(shoePool.takeShoe().block(noNewShoe).getId(), shoePool.takeShoe().block(noNewShoe).getId()))
+                .doesNotContain(dealt.getId())
+                .allMatch(raced::contains);
+        // Only emptying the pool starts a new one
+        verify(shoeRepository, timeout(2_000).times(4)).save(any(Shoe.class));
+    }
+
+    @Test
+    void extend_ShouldClaimBlocksPastTheCutCardUntilTheShoeIsUsedUp() {
+        Shoe shoe = Shoe.builder().id("shoe-1").cards(new byte[52]).cutCard(39).build();
+        when(shoeRepository.claimBlock(shoe, 16)).thenReturn(Mono.just(39), Mono.just(55));
+
+        StepVerifier.create(shoePool.extend(shoe))
+                .assertNext(block -> {
+                    assertThat(block.firstCard()).isEqualTo(39);
+                    // Cut short by the end of the shoe
+                    assertThat(block.endCard()).isEqualTo(52);
+                })
+                .verifyComplete();
+        StepVerifier.create(shoePool.extend(shoe)).verifyComplete();
+    }
+}
@@ -0,0 +1,48 @@
+package cat.itacademy.s05.t01.blackjack.service;
+
+import cat.itacademy.s05.t01.blackjack.config.ShoeProperties;
+import cat.itacademy.s05.t01.blackjack.config.SimulationProperties;
+import cat.itacademy.s05.t01.blackjack.dto.SimulationRequest;
+import cat.itacademy.s05.t01.blackjack.exception.TooManyRequestsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SimulationServiceTest {
+
+    private final SimulationServiceImpl simulationService = new SimulationServiceImpl(
+            new ShoeProperties(6, 0.75, 16, 1, 4), new SimulationProperties(2, 1));
+
+    @AfterEach
+    void tearDown() {
+        simulationService.stop();
+    }
+
+    @Test
+    void simulate_ShouldPlayEveryHandOnTheSimulationScheduler() {
+        StepVerifier.create(simulationService.simulate(new SimulationRequest(25_000L, null, "NEVER_BUST", 5L)))
+                .assertNext(response -> {
+                    assertThat(response.getHands()).isEqualTo(25_000);
+                    assertThat(response.getDecks()).isEqualTo(6);
+                    assertThat(response.getPlayerBusts()).isZero();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void simulate_ShouldReject_WhenTheMaximumAreAlreadyRunning_AndAcceptOnceOneIsCancelled() {
+        Disposable running = simulationService.simulate(new SimulationRequest(10_000_000L, null, null, 1L)).subscribe();
+
+        StepVerifier.create(simulationService.simulate(new SimulationRequest(1L, null, null, 1L)))
+                .expectError(TooManyRequestsException.class)
+                .verify();
+
+        running.dispose();
+        StepVerifier.create(simulationService.simulate(new SimulationRequest(1L, null, null, 1L)))
+                .assertNext(response -> assertThat(response.getHands()).isEqualTo(1))
+                .verifyComplete();
+    }
+}
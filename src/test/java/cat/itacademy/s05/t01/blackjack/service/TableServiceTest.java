@@ -0,0 +1,157 @@
+package cat.itacademy.s05.t01.blackjack.service;
+
+import cat.itacademy.s05.t01.blackjack.config.TableProperties;
+import cat.itacademy.s05.t01.blackjack.dto.JoinTableRequest;
+import cat.itacademy.s05.t01.blackjack.dto.PlayRequestDTO;
+import cat.itacademy.s05.t01.blackjack.dto.SeatResponse;
+import cat.itacademy.s05.t01.blackjack.exception.InvalidMoveException;
+import cat.itacademy.s05.t01.blackjack.model.mongo.Seat;
+import cat.itacademy.s05.t01.blackjack.model.mongo.Shoe;
+import cat.itacademy.s05.t01.blackjack.model.mongo.Table;
+import cat.itacademy.s05.t01.blackjack.repository.mongo.TableReactiveRepository;
+import cat.itacademy.s05.t01.blackjack.repository.mysql.PlayerRepository;
+import cat.itacademy.s05.t01.blackjack.repository.mysql.PlayerResultRepository;
+import cat.itacademy.s05.t01.blackjack.util.Cards;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TableServiceTest {
+
+    private final TableReactiveRepository tableRepository = mock(TableReactiveRepository.class);
+    private final PlayerRepository playerRepository = mock(PlayerRepository.class);
+    private final ShoePool shoePool = mock(ShoePool.class);
+    private final Leaderboard leaderboard = mock(Leaderboard.class);
+    private final PlayerIdCache playerIds = mock(PlayerIdCache.class);
+
+    private TableServiceImpl tableService;
+    private Table table;
+
+    @BeforeEach
+    void setUp() {
+        tableService = tableService(Duration.ofSeconds(30));
+
+        table = Table.builder()
+                .id("t1")
+                .seats(new ArrayList<>(List.of(seat(1, 10L, "Alice"), seat(2, 20L, "Bob"))))
+                .shoeId("shoe-1")
+                .version(0L)
+                .build();
+
+        when(tableRepository.findById("t1")).thenAnswer(invocation -> Mono.just(table));
+        when(tableRepository.save(any(Table.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(shoePool.findShoe("shoe-1")).thenReturn(Mono.just(Shoe.builder()
+                .id("shoe-1")
+                .cards(Cards.encodeAll(List.of(
+                        "10H", "9C", "7D", "8S", "6H", "10D", "5C", "2S", "KH", "QD")))
+                .cutCard(8)
+                .build()));
+    }
+
+    private TableServiceImpl tableService(Duration actionTimeout) {
+        return new TableServiceImpl(tableRepository, playerRepository, shoePool, leaderboard,
+                new TableProperties(2, Duration.ofMillis(20), actionTimeout), playerIds);
+    }
+
+    private Seat seat(int number, long playerId, String name) {
+        return Seat.builder().number(number).playerId(playerId).playerName(name).build();
+    }
+
+    @Test
+    void startRound_ShouldDealEverySeatAndOneDealerHand() {
+        // Alice 10H 8S, Bob 9C 6H, dealer 7D 10D
+        StepVerifier.create(tableService.startRound("t1"))
+                .assertNext(res -> {
+                    assertThat(res.getRoundNumber()).isEqualTo(1);
+                    assertThat(res.getSeats()).extracting(SeatResponse::getCards)
+                            .containsExactly(List.of("10H", "8S"), List.of("9C", "6H"));
+                    assertThat(res.getDealerHand()).containsExactly("7D");
+                })
+                .verifyComplete();
+
+        assertThat(table.getNextCardIndex()).isEqualTo(6);
+    }
+
+    @Test
+    void playSeat_ShouldSettleAllSeatsOnceWithOneBatchedStatsUpdate() {
+        tableService.startRound("t1").block();
+        when(playerRepository.recordResults(anyList())).thenReturn(Mono.just(2L));
+
+        // Both actions land in the same window: one read and one write for the table
+        StepVerifier.create(Mono.zip(
+                        tableService.playSeat("t1", 1, new PlayRequestDTO("STAND")),
+                        tableService.playSeat("t1", 2, new PlayRequestDTO("STAND"))))
+                .assertNext(both -> {
+                    assertThat(both.getT1().getRoundStatus()).isEqualTo("SETTLED");
+                    // Dealer 17 stands: Alice 18 wins, Bob 15 loses
+                    assertThat(both.getT1().getSeats()).extracting(SeatResponse::getResult)
+                            .containsExactly("PLAYER_WIN", "PLAYER_LOSE");
+                })
+                .verifyComplete();
+
+        verify(tableRepository, times(2)).save(any(Table.class));
+        verify(playerRepository, times(1)).recordResults(List.of(
+                new PlayerResultRepository.Result(10L, 1, 0),
+                new PlayerResultRepository.Result(20L, 0, 1)));
+        verify(playerRepository, never()).recordResult(anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    void playSeat_ShouldStandSeatsThatDoNotAct_OnceTheActionTimeoutPasses() {
+        tableService = tableService(Duration.ofMillis(200));
+        when(playerRepository.recordResults(anyList())).thenReturn(Mono.just(2L));
+        tableService.startRound("t1").block();
+
+        // Alice stands, Bob never acts
+        StepVerifier.create(tableService.playSeat("t1", 1, new PlayRequestDTO("STAND")))
+                .assertNext(res -> assertThat(res.getRoundStatus()).isEqualTo("PLAYING"))
+                .verifyComplete();
+
+        verify(playerRepository, timeout(2_000)).recordResults(List.of(
+                new PlayerResultRepository.Result(10L, 1, 0),
+                new PlayerResultRepository.Result(20L, 0, 1)));
+        StepVerifier.create(tableService.getTable("t1"))
+                .assertNext(res -> {
+                    assertThat(res.getRoundStatus()).isEqualTo("SETTLED");
+                    assertThat(res.getSeats()).extracting(SeatResponse::getStatus)
+                            .containsExactly("STOOD", "STOOD");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void playSeat_ShouldRestartTheActionTimeout_WhenASeatActs() throws InterruptedException {
+        tableService = tableService(Duration.ofMillis(300));
+        tableService.startRound("t1").block();
+
+        Thread.sleep(200);
+        tableService.playSeat("t1", 1, new PlayRequestDTO("STAND")).block();
+        Thread.sleep(200);
+
+        // 400ms after the deal but only 200ms after the last action
+        assertThat(table.getRound().getStatus().name()).isEqualTo("PLAYING");
+        verify(playerRepository, never()).recordResults(anyList());
+    }
+
+    @Test
+    void joinTable_ShouldRejectPlayers_WhenTableIsFull() {
+        when(playerIds.idOf("Carol")).thenReturn(Mono.just(30L));
+
+        StepVerifier.create(tableService.joinTable("t1", new JoinTableRequest("Carol")))
+                .expectErrorMessage("Table is full")
+                .verify();
+
+        StepVerifier.create(tableService.playSeat("t1", 1, new PlayRequestDTO("SPLIT")))
+                .expectError(InvalidMoveException.class)
+                .verify();
+    }
+}
@@ -0,0 +1,81 @@
+package cat.itacademy.s05.t01.blackjack.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BlackjackRulesTest {
+
+    private HandState evaluate(String... labels) {
+        return BlackjackRules.evaluate(Cards.encodeAll(List.of(labels)));
+    }
+
+    @Test
+    void evaluate_ShouldCountAceAsElevenWhileItFits() {
+        HandState hand = evaluate("AH", "6D");
+
+        assertThat(hand.total()).isEqualTo(17);
+        assertThat(hand.isSoft()).isTrue();
+        assertThat(hand.softAces()).isEqualTo(1);
+    }
+
+    @Test
+    void evaluate_ShouldDropAceToOneWhenHandWouldBust() {
+        HandState hand = evaluate("AH", "6D", "KC");
+
+        assertThat(hand.total()).isEqualTo(17);
+        assertThat(hand.isSoft()).isFalse();
+        assertThat(hand.cardCount()).isEqualTo(3);
+    }
+
+    @Test
+    void evaluate_ShouldFlagBlackjackAndBust() {
+        assertThat(evaluate("AS", "QH").isBlackjack()).isTrue();
+        assertThat(evaluate("7S", "7H", "7D").isBlackjack()).isFalse();
+        assertThat(evaluate("10S", "9H", "5D").isBust()).isTrue();
+    }
+
+    @Test
+    void add_ShouldReuseStatesInsteadOfAllocating() {
+        HandState first = evaluate("5H", "8D");
+        HandState second = evaluate("3C", "10S");
+
+        assertThat(first).isSameAs(second);
+    }
+
+    @Test
+    void add_ShouldMatchCalculateHandValueWhileDrawingToBust() {
+        for (int i = 0; i < 10_000; i++) {
+            byte[] deck = DeckFactory.createShuffledDeck();
+            byte[] hand = new byte[0];
+            HandState state = HandState.EMPTY;
+
+            for (int next = 0; !state.isBust(); next++) {
+                hand = Cards.append(hand, deck[next]);
+                state = state.add(deck[next]);
+
+                assertThat(state.total()).isEqualTo(BlackjackRules.calculateHandValue(hand));
+            }
+        }
+    }
+
+    @Test
+    void of_ShouldContinueFromTheStoredTotalLikeTheFullHand() {
+        for (int i = 0; i < 10_000; i++) {
+            byte[] deck = DeckFactory.createShuffledDeck();
+            byte[] hand = new byte[0];
+            HandState state = HandState.EMPTY;
+
+            for (int next = 0; !state.isBust(); next++) {
+                HandState stored = HandState.of(state.total(), state.isSoft(), hand.length);
+                hand = Cards.append(hand, deck[next]);
+                state = stored.add(deck[next]);
+
+                assertThat(state.total()).isEqualTo(BlackjackRules.calculateHandValue(hand));
+                assertThat(state.isSoft()).isEqualTo(BlackjackRules.evaluate(hand).isSoft());
+            }
+        }
+    }
+}
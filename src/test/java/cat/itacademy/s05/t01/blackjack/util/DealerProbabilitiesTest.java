@@ -0,0 +1,84 @@
+package cat.itacademy.s05.t01.blackjack.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class DealerProbabilitiesTest {
+
+    private static final int ACE = 0;
+    private static final int SIX = 5;
+    private static final int TEN = 9;
+
+    @Test
+    void outcomes_ShouldAddUpToOne() {
+        int[] counts = StrategySolver.shoeComposition(8);
+        counts[SIX]--;
+
+        double[] outcomes = new DealerProbabilities(100).outcomes(counts, SIX);
+
+        assertThat(Arrays.stream(outcomes).sum()).isCloseTo(1.0, within(1e-12));
+        // A dealer showing 6 busts about 42% of the time
+        assertThat(outcomes[DealerProbabilities.BUST]).isBetween(0.40, 0.44);
+    }
+
+    @Test
+    void outcomes_ShouldEnumerateWithoutReplacement() {
+        // Dealer shows an ace and only tens are left: always soft 21
+        int[] counts = new int[StrategySolver.VALUES];
+        counts[TEN] = 3;
+
+        double[] outcomes = new DealerProbabilities(100).outcomes(counts, ACE);
+
+        assertThat(outcomes).containsExactly(0, 0, 0, 0, 1, 0);
+
+        // Ace up with one six and one ten left: A+6 is soft 17 (stands), A+10 is 21
+        counts = new int[StrategySolver.VALUES];
+        counts[SIX] = 1;
+        counts[TEN] = 1;
+
+        assertThat(new DealerProbabilities(100).outcomes(counts, ACE))
+                .containsExactly(0.5, 0, 0, 0, 0.5, 0);
+    }
+
+    @Test
+    void outcomes_ShouldMatchDealerPlayedOutBySimulation() {
+        int[] counts = StrategySolver.shoeComposition(1);
+        counts[TEN]--;
+        double[] exact = new DealerProbabilities(100).outcomes(counts, TEN);
+
+        // Play the dealer out on one shuffled deck with the ten on top
+        byte tenOfHearts = 9;
+        double[] simulated = new double[DealerProbabilities.OUTCOMES];
+        int hands = 200_000;
+        for (int i = 0; i < hands; i++) {
+            byte[] deck = DeckFactory.createShuffledDeck();
+            HandState dealer = HandState.EMPTY.add(tenOfHearts);
+            for (int next = 0; BlackjackRules.dealerMustHit(dealer); next++) {
+                if (deck[next] != tenOfHearts) {
+                    dealer = dealer.add(deck[next]);
+                }
+            }
+            simulated[dealer.isBust() ? DealerProbabilities.BUST : dealer.total() - 17] += 1.0 / hands;
+        }
+
+        for (int outcome = 0; outcome < DealerProbabilities.OUTCOMES; outcome++) {
+            assertThat(simulated[outcome]).isCloseTo(exact[outcome], within(0.01));
+        }
+    }
+
+    @Test
+    void outcomes_ShouldKeepCacheBounded() {
+        DealerProbabilities dealer = new DealerProbabilities(3);
+        int[] counts = StrategySolver.shoeComposition(2);
+
+        for (int up = 0; up < StrategySolver.VALUES; up++) {
+            dealer.outcomes(counts, up);
+        }
+
+        assertThat(dealer.cachedAnswers()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,96 @@
+package cat.itacademy.s05.t01.blackjack.util;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SimulationEngineTest {
+
+    @Test
+    void simulate_ShouldCountEveryHandOnce() {
+        long hands = 3 * SimulationEngine.HANDS_PER_CHUNK + 17;
+
+        SimulationResult result = SimulationEngine.simulate(hands, 6, 0.75, SimulationStrategy.MIMIC_DEALER, 42L);
+
+        assertThat(result.hands()).isEqualTo(hands);
+        assertThat(result.wins() + result.losses() + result.pushes()).isEqualTo(hands);
+        assertThat(result.playerBusts()).isPositive().isLessThanOrEqualTo(result.losses());
+        assertThat(result.dealerBusts()).isPositive().isLessThanOrEqualTo(result.wins());
+    }
+
+    @Test
+    void simulate_ShouldBeReproducibleForSameSeed() {
+        SimulationResult first = SimulationEngine.simulate(50_000, 1, 0.9, SimulationStrategy.MIMIC_DEALER, 7L);
+        SimulationResult second = SimulationEngine.simulate(50_000, 1, 0.9, SimulationStrategy.MIMIC_DEALER, 7L);
+
+        assertThat(second).isEqualTo(first);
+    }
+
+    @Test
+    void simulate_ShouldNeverBustPlayer_WithNeverBustStrategy() {
+        SimulationResult result = SimulationEngine.simulate(20_000, 6, 0.75, SimulationStrategy.NEVER_BUST, 1L);
+
+        assertThat(result.playerBusts()).isZero();
+        // The house keeps an edge over a player who never risks busting
+        assertThat(result.expectedValue()).isNegative();
+    }
+
+    @Test
+    void simulate_ShouldGiveTheSameResultOnTheScheduler_AsOnTheCallingThread() {
+        Scheduler scheduler = Schedulers.newParallel("simulation-test", 4);
+        try {
+            SimulationResult expected = SimulationEngine.simulate(55_555, 6, 0.75, SimulationStrategy.MIMIC_DEALER, 9L);
+
+            StepVerifier.create(SimulationEngine.simulate(
+                            55_555, 6, 0.75, SimulationStrategy.MIMIC_DEALER, 9L, scheduler, 4))
+                    .expectNext(expected)
+                    .verifyComplete();
+        } finally {
+            scheduler.dispose();
+        }
+    }
+
+    @Test
+    void simulate_ShouldStopStartingChunks_WhenCancelled() throws InterruptedException {
+        Scheduler scheduler = Schedulers.newParallel("simulation-test", 1);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicLong decisions = new AtomicLong();
+        Strategy counting = (player, dealerUpCard) -> {
+            started.countDown();
+            decisions.incrementAndGet();
+            return SimulationStrategy.MIMIC_DEALER.decide(player, dealerUpCard);
+        };
+        try {
+            Disposable run = SimulationEngine.simulate(1_000L * SimulationEngine.HANDS_PER_CHUNK, 6, 0.75, counting, 1L,
+                            scheduler, 1)
+                    .subscribe();
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            run.dispose();
+
+            // Let the chunk that was playing finish, then nothing else runs
+            long settled = waitUntilStable(decisions);
+            assertThat(decisions.get()).isEqualTo(settled);
+            // A whole run makes well over one decision per hand
+            assertThat(settled).isLessThan(5L * SimulationEngine.HANDS_PER_CHUNK);
+        } finally {
+            scheduler.dispose();
+        }
+    }
+
+    private static long waitUntilStable(AtomicLong counter) throws InterruptedException {
+        long last;
+        do {
+            last = counter.get();
+            Thread.sleep(100);
+        } while (counter.get() != last);
+        return last;
+    }
+}
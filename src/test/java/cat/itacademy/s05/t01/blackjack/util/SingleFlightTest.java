@@ -0,0 +1,46 @@
+package cat.itacademy.s05.t01.blackjack.util;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    private Mono<String> slowLookup(String key) {
+        return Mono.fromSupplier(() -> key + "-" + lookups.incrementAndGet())
+                .delayElement(Duration.ofMillis(50));
+    }
+
+    @Test
+    void execute_ShouldShareOneLookupBetweenConcurrentCallers() {
+        StepVerifier.create(Flux.range(0, 10)
+                        .flatMap(i -> singleFlight.execute("game-1", () -> slowLookup("game-1")))
+                        .distinct())
+                .expectNext("game-1-1")
+                .verifyComplete();
+
+        assertThat(lookups).hasValue(1);
+        assertThat(singleFlight.inFlight()).isZero();
+    }
+
+    @Test
+    void execute_ShouldStartNewLookup_OnceThePreviousOneCompleted() {
+        singleFlight.execute("game-1", () -> slowLookup("game-1")).block();
+        singleFlight.execute("game-1", () -> Mono.error(new IllegalStateException("down")))
+                .onErrorResume(ex -> Mono.empty())
+                .block();
+
+        StepVerifier.create(singleFlight.execute("game-1", () -> slowLookup("game-1")))
+                .expectNext("game-1-2")
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,100 @@
+package cat.itacademy.s05.t01.blackjack.util;
+
+import cat.itacademy.s05.t01.blackjack.model.mongo.Move;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StrategySolverTest {
+
+    private static final int ACE = 0;
+    private static final int TEN = 9;
+
+    // Dealer up-card value index for a card of rank 2..9
+    private static int up(int rank) {
+        return rank - 1;
+    }
+
+    @Test
+    void solveTable_ShouldMatchBasicStrategyForHitAndStand() {
+        StrategyTable table = StrategySolver.solveTable(6, new DealerProbabilities(1_000));
+
+        assertThat(table.lookup(11, false, TEN)).isEqualTo(Move.HIT);
+        assertThat(table.lookup(12, false, up(2))).isEqualTo(Move.HIT);
+        assertThat(table.lookup(12, false, up(4))).isEqualTo(Move.STAND);
+        assertThat(table.lookup(13, false, up(2))).isEqualTo(Move.STAND);
+        assertThat(table.lookup(16, false, up(7))).isEqualTo(Move.HIT);
+        assertThat(table.lookup(16, false, TEN)).isEqualTo(Move.HIT);
+        assertThat(table.lookup(17, false, ACE)).isEqualTo(Move.STAND);
+        assertThat(table.lookup(17, true, up(7))).isEqualTo(Move.HIT);
+        assertThat(table.lookup(18, true, up(8))).isEqualTo(Move.STAND);
+        assertThat(table.lookup(18, true, up(9))).isEqualTo(Move.HIT);
+        assertThat(table.lookup(18, true, TEN)).isEqualTo(Move.HIT);
+    }
+
+    @Test
+    void solveTable_ShouldDoubleAndSplitLikeBasicStrategy() {
+        StrategyTable table = StrategySolver.solveTable(6, new DealerProbabilities(1_000));
+        int none = StrategySolver.NO_PAIR;
+
+        assertThat(table.lookup(11, false, up(6), true, none)).isEqualTo(Move.DOUBLE);
+        // The dealer plays out a blackjack without peeking, so 11 against a ten only hits
+        assertThat(table.lookup(11, false, TEN, true, none)).isEqualTo(Move.HIT);
+        assertThat(table.lookup(11, false, up(6), false, none)).isEqualTo(Move.HIT);
+        assertThat(table.lookup(18, true, up(4), true, none)).isEqualTo(Move.DOUBLE);
+        assertThat(table.lookup(18, true, up(4), false, none)).isEqualTo(Move.STAND);
+
+        assertThat(table.lookup(12, true, up(6), true, ACE)).isEqualTo(Move.SPLIT);
+        assertThat(table.lookup(16, false, up(9), true, up(8))).isEqualTo(Move.SPLIT);
+        assertThat(table.lookup(16, false, TEN, true, up(8))).isEqualTo(Move.HIT);
+        assertThat(table.lookup(18, false, up(7), true, up(9))).isEqualTo(Move.STAND);
+        assertThat(table.lookup(18, false, up(8), true, up(9))).isEqualTo(Move.SPLIT);
+        assertThat(table.lookup(10, false, up(6), true, up(5))).isEqualTo(Move.DOUBLE);
+        assertThat(table.lookup(20, false, up(6), true, TEN)).isEqualTo(Move.STAND);
+    }
+
+    @Test
+    void bestMove_ShouldSolveTheExactComposition() {
+        // 10 + 6 against a dealer ten from a single deck
+        int[] remaining = StrategySolver.shoeComposition(1);
+        remaining[TEN] -= 2;
+        remaining[up(6)]--;
+
+        DealerProbabilities dealer = new DealerProbabilities(1_000);
+
+        assertThat(StrategySolver.bestMove(remaining, 16, false, TEN, dealer)).isEqualTo(Move.HIT);
+        assertThat(StrategySolver.bestMove(remaining, 21, false, TEN, dealer)).isEqualTo(Move.STAND);
+    }
+
+    @Test
+    void bestMove_ShouldWeighDoublingAndSplitting_WhenTheHandAllowsIt() {
+        DealerProbabilities dealer = new DealerProbabilities(10_000);
+
+        // 6 + 5 against a dealer six from a single deck
+        int[] eleven = StrategySolver.shoeComposition(1);
+        eleven[up(6)] -= 2;
+        eleven[up(5)]--;
+        assertThat(StrategySolver.bestMove(eleven, 11, false, up(6), true, StrategySolver.NO_PAIR, dealer))
+                .isEqualTo(Move.DOUBLE);
+        assertThat(StrategySolver.bestMove(eleven, 11, false, up(6), false, StrategySolver.NO_PAIR, dealer))
+                .isEqualTo(Move.HIT);
+
+        // 8 + 8 against a dealer six
+        int[] eights = StrategySolver.shoeComposition(1);
+        eights[up(8)] -= 2;
+        eights[up(6)]--;
+        assertThat(StrategySolver.bestMove(eights, 16, false, up(6), true, up(8), dealer)).isEqualTo(Move.SPLIT);
+        assertThat(StrategySolver.bestMove(eights, 16, false, up(6), true, StrategySolver.NO_PAIR, dealer))
+                .isEqualTo(Move.STAND);
+    }
+
+    @Test
+    void solveTable_ShouldPlayBetterThanMimickingTheDealer() {
+        StrategyTable table = StrategySolver.solveTable(6, new DealerProbabilities(1_000));
+
+        SimulationResult basic = SimulationEngine.simulate(200_000, 6, 0.75, table, 3L);
+        SimulationResult mimic = SimulationEngine.simulate(200_000, 6, 0.75, SimulationStrategy.MIMIC_DEALER, 3L);
+
+        assertThat(basic.expectedValue()).isGreaterThan(mimic.expectedValue());
+    }
+}